@@ -0,0 +1,74 @@
+package com.crystalrealm.ecotalequests.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение форматирования монет: {@link DecimalFormat} (по экземпляру на
+ * поток — иначе он небезопасен) против {@link MessageUtil#appendCoins}.
+ * Замеряется на нескольких потоках, как вызывается из ECS-систем и планировщика.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class MessageUtilFormatBenchmark {
+
+    private static final int VALUES = 1024;
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        final double[] values = new double[VALUES];
+        final DecimalFormat decimalFormat =
+                new DecimalFormat("#,##0.##", DecimalFormatSymbols.getInstance(Locale.US));
+        final StringBuilder sb = new StringBuilder(32);
+        int next;
+
+        @Setup
+        public void setup() {
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 0; i < VALUES; i++) {
+                values[i] = random.nextInt(0, 10_000_000) / 100.0;
+            }
+        }
+
+        double nextValue() {
+            return values[next++ & (VALUES - 1)];
+        }
+    }
+
+    @Benchmark
+    public String decimalFormat(ThreadState state) {
+        return state.decimalFormat.format(state.nextValue());
+    }
+
+    @Benchmark
+    public String formatCoins(ThreadState state) {
+        return MessageUtil.formatCoins(state.nextValue(), false);
+    }
+
+    @Benchmark
+    public void appendCoins(ThreadState state, Blackhole blackhole) {
+        StringBuilder sb = state.sb;
+        sb.setLength(0);
+        blackhole.consume(MessageUtil.appendCoins(sb, state.nextValue(), false));
+    }
+}
@@ -9,10 +9,14 @@ import com.crystalrealm.ecotalequests.listeners.BlockQuestListener;
 import com.crystalrealm.ecotalequests.listeners.CoinQuestListener;
 import com.crystalrealm.ecotalequests.listeners.MobDeathQuestSystem;
 import com.crystalrealm.ecotalequests.listeners.MobKillQuestListener;
+import com.crystalrealm.ecotalequests.listeners.PlayerConnectionListener;
 import com.crystalrealm.ecotalequests.listeners.QuestBoardInteractionListener;
 import com.crystalrealm.ecotalequests.model.QuestPeriod;
 import com.crystalrealm.ecotalequests.protection.QuestAbuseGuard;
 import com.crystalrealm.ecotalequests.reward.QuestRewardCalculator;
+import com.crystalrealm.ecotalequests.service.ConfigFileWatcher;
+import com.crystalrealm.ecotalequests.service.LeaderboardService;
+import com.crystalrealm.ecotalequests.service.NotificationScheduler;
 import com.crystalrealm.ecotalequests.service.QuestAvailabilityManager;
 import com.crystalrealm.ecotalequests.service.QuestBoardManager;
 import com.crystalrealm.ecotalequests.service.QuestRankService;
@@ -28,6 +32,7 @@ import com.crystalrealm.ecotalequests.provider.leveling.MMOSkillTreeProvider;
 import com.crystalrealm.ecotalequests.provider.leveling.RPGLevelingProvider;
 import com.crystalrealm.ecotalequests.util.MessageUtil;
 import com.crystalrealm.ecotalequests.util.PermissionHelper;
+import com.crystalrealm.ecotalequests.util.PlayerSessions;
 import com.crystalrealm.ecotalequests.util.PluginLogger;
 
 import com.hypixel.hytale.server.core.HytaleServer;
@@ -36,6 +41,8 @@ import com.hypixel.hytale.server.core.plugin.JavaPluginInit;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -69,6 +76,7 @@ public class EcoTaleQuestsPlugin extends JavaPlugin {
     private QuestTracker questTracker;
     private QuestAbuseGuard abuseGuard;
     private QuestRankService rankService;
+    private LeaderboardService leaderboardService;
     private QuestAvailabilityManager availabilityManager;
     private TimerService timerService;
     private QuestBoardManager boardManager;
@@ -79,6 +87,9 @@ public class EcoTaleQuestsPlugin extends JavaPlugin {
     private BlockQuestListener blockQuestListener;
     private CoinQuestListener coinQuestListener;
     private QuestBoardInteractionListener boardInteractionListener;
+    private PlayerConnectionListener connectionListener;
+    private NotificationScheduler notificationScheduler;
+    private ConfigFileWatcher configFileWatcher;
 
     // ── Provider Bridges ────────────────────────────────────────
     private EconomyBridge economyBridge;
@@ -106,6 +117,7 @@ public class EcoTaleQuestsPlugin extends JavaPlugin {
         // 1. Config
         configManager = new ConfigManager(getDataDirectory());
         configManager.loadOrCreate();
+        MessageUtil.setCurrencySettings(() -> configManager.getConfig().getGeneral());
 
         // 1b. Permission resolver (reads permissions.json for group-based checks)
         PermissionHelper.getInstance().init(getDataDirectory());
@@ -120,16 +132,18 @@ public class EcoTaleQuestsPlugin extends JavaPlugin {
         storage.initialize();
 
         // 4. Generator
-        questGenerator = new QuestGenerator(config);
+        questGenerator = new QuestGenerator(configManager::getConfig);
 
         // 5. Reward calculator (EconomyBridge injected in start())
-        rewardCalculator = new QuestRewardCalculator(config);
+        rewardCalculator = new QuestRewardCalculator(configManager::getConfig);
 
         // 6. Anti-abuse
-        abuseGuard = new QuestAbuseGuard(config);
+        abuseGuard = new QuestAbuseGuard(configManager::getConfig);
 
-        // 6a. Rank service
-        rankService = new QuestRankService(storage, config, langManager);
+        // 6a. Rank service + leaderboard index
+        leaderboardService = new LeaderboardService();
+        leaderboardService.rebuild(storage.getAllRankData());
+        rankService = new QuestRankService(storage, configManager::getConfig, langManager, leaderboardService);
 
         // 6b. Availability manager
         availabilityManager = new QuestAvailabilityManager(storage);
@@ -137,14 +151,19 @@ public class EcoTaleQuestsPlugin extends JavaPlugin {
 
         // 6c. Timer service
         timerService = new TimerService();
+        timerService.setRelogGracePeriodMs(config.getTimers().getRelogGracePeriodMs());
 
         // 6d. Board manager
         boardManager = new QuestBoardManager(storage);
         boardManager.initialize();
 
         // 7. Quest tracker
-        questTracker = new QuestTracker(config, storage, questGenerator, rewardCalculator, langManager,
-                rankService, availabilityManager, timerService);
+        questTracker = new QuestTracker(configManager::getConfig, storage, questGenerator, rewardCalculator,
+                langManager, rankService, availabilityManager, timerService);
+        notificationScheduler = new NotificationScheduler(HytaleServer.SCHEDULED_EXECUTOR,
+                config.getGeneral().getNotificationWindowMs(),
+                config.getGeneral().getMaxNotificationsPerSecond());
+        questTracker.setNotificationScheduler(notificationScheduler);
 
         // 8. Commands
         getCommandRegistry().registerCommand(new QuestsCommandCollection(this));
@@ -156,12 +175,17 @@ public class EcoTaleQuestsPlugin extends JavaPlugin {
         getEntityStoreRegistry().registerSystem(mobDeathQuestSystem);
         LOGGER.info("MobDeathQuestSystem registered (native ECS death tracking).");
 
-        blockQuestListener = new BlockQuestListener(questTracker);
+        blockQuestListener = new BlockQuestListener(questTracker, config.getBlockRules());
         blockQuestListener.register(getEntityStoreRegistry());
 
         // 10. Register quest board interaction listener (physical boards)
         boardInteractionListener = new QuestBoardInteractionListener(this);
         boardInteractionListener.register(getEntityStoreRegistry());
+
+        // 11. Player connect/disconnect (relog grace for quest timers)
+        connectionListener = new PlayerConnectionListener(timerService);
+        connectionListener.setAvailabilityManager(availabilityManager);
+        connectionListener.register(getEventRegistry());
     }
 
     @Override
@@ -192,6 +216,8 @@ public class EcoTaleQuestsPlugin extends JavaPlugin {
                     genericLvl.getGetLevelMethod(), genericLvl.getGrantXPMethod()));
         }
         levelBridge.activate(config.getGeneral().getLevelProvider());
+        levelBridge.setLevelCacheTtlMs(config.getGeneral().getLevelCacheSeconds() * 1000L);
+        levelBridge.setRefreshExecutor(HytaleServer.SCHEDULED_EXECUTOR);
         LOGGER.info("Level provider: {}", levelBridge.getProviderName());
 
         // ── Inject bridges into components ──
@@ -199,9 +225,11 @@ public class EcoTaleQuestsPlugin extends JavaPlugin {
         rewardCalculator.setLevelBridge(levelBridge);
         blockQuestListener.setLevelBridge(levelBridge);
         mobDeathQuestSystem.setLevelBridge(levelBridge);
+        connectionListener.setLevelBridge(levelBridge);
 
         // ── Register RPG Leveling listener (XP quests via event subscription) ──
         mobKillListener = new MobKillQuestListener(questTracker);
+        mobKillListener.setLevelBridge(levelBridge);
         Object rawRpgApi = null;
         for (var entry : java.util.List.of("rpgleveling")) {
             if (levelBridge.isAvailable()) {
@@ -223,6 +251,11 @@ public class EcoTaleQuestsPlugin extends JavaPlugin {
         // ── Register coin listener ──
         coinQuestListener = new CoinQuestListener(questTracker, economyBridge, levelBridge);
         coinQuestListener.register();
+        connectionListener.setCoinQuestListener(coinQuestListener);
+        connectionListener.setNotificationScheduler(notificationScheduler);
+        connectionListener.setRewardCalculator(rewardCalculator);
+        // LuckPerms group changes re-resolve the VIP tier of that player
+        PermissionHelper.getInstance().setOnUserDataChanged(rewardCalculator::refreshVipTier);
 
         // ── Generate initial quest pools ──
         int avgLevel = levelBridge.isAvailable() ? 5 : 1;
@@ -239,6 +272,7 @@ public class EcoTaleQuestsPlugin extends JavaPlugin {
                 () -> {
                     try {
                         timerService.tick();
+                        availabilityManager.expireClaims();
                     } catch (Exception e) {
                         LOGGER.error("Timer tick failed", e);
                     }
@@ -272,6 +306,16 @@ public class EcoTaleQuestsPlugin extends JavaPlugin {
                 1, 1, TimeUnit.MINUTES
         );
 
+        // ── Hot reload on file changes ──
+        if (config.getGeneral().isWatchConfigFiles()) {
+            configFileWatcher = new ConfigFileWatcher(configManager.getConfigPath(),
+                    PermissionHelper.getInstance().getPermissionsFile(),
+                    langManager.getLangDirectory(),
+                    config.getGeneral().getConfigReloadDebounceMs(),
+                    this::reloadFromDisk);
+            configFileWatcher.start();
+        }
+
         LOGGER.info("═══════════════════════════════════════");
         LOGGER.info("  EcoTaleQuests v{} — STARTED", VERSION);
         LOGGER.info("  Economy:           {} ({})", config.getGeneral().getEconomyProvider(), economyBridge.getProviderName());
@@ -279,7 +323,8 @@ public class EcoTaleQuestsPlugin extends JavaPlugin {
         LOGGER.info("  Mob kill tracking: ACTIVE (native ECS DeathSystem)");
         LOGGER.info("  XP tracking:       {}", mobKillListener.isRegistered() ? "ACTIVE" : "DISABLED");
         LOGGER.info("  Block tracking:    ACTIVE");
-        LOGGER.info("  Coin tracking:     {}", coinQuestListener.isRegistered() ? "ACTIVE" : "DISABLED");
+        LOGGER.info("  Coin tracking:     {}", !coinQuestListener.isRegistered() ? "DISABLED"
+                : coinQuestListener.isEventDriven() ? "ACTIVE (events)" : "ACTIVE (polling)");
         LOGGER.info("  Daily pool:        {} quests", storage.loadQuestPool(QuestPeriod.DAILY).size());
         LOGGER.info("  Weekly pool:       {} quests", storage.loadQuestPool(QuestPeriod.WEEKLY).size());
         LOGGER.info("  Ranks:             {}", config.getRanks().isEnabled() ? "ENABLED" : "DISABLED");
@@ -293,22 +338,73 @@ public class EcoTaleQuestsPlugin extends JavaPlugin {
         LOGGER.info("EcoTaleQuests shutting down...");
 
         // Cancel scheduled tasks
+        if (configFileWatcher != null) configFileWatcher.stop();
         if (autoSaveTask != null) autoSaveTask.cancel(false);
         if (poolRefreshTask != null) poolRefreshTask.cancel(false);
         if (timerTickTask != null) timerTickTask.cancel(false);
         if (coinQuestListener != null) coinQuestListener.shutdown();
+        if (notificationScheduler != null) notificationScheduler.shutdown();
+        PermissionHelper.getInstance().setOnUserDataChanged(null);
 
         // Save all data
         if (storage != null) storage.shutdown();
 
         // Cleanup
         if (abuseGuard != null) abuseGuard.cleanup();
-        MessageUtil.clearCache();
+        PlayerSessions.clear();
         if (langManager != null) langManager.clearPlayerData();
 
         LOGGER.info("EcoTaleQuests v{} — shutdown complete.", VERSION);
     }
 
+    // ═════════════════════════════════════════════════════════════
+    //  RELOAD
+    // ═════════════════════════════════════════════════════════════
+
+    /**
+     * Перечитывает конфиг, локализацию и пермишены с диска и применяет их
+     * (команда /quests reload, админ-GUI).
+     *
+     * @return false если конфиг не прошёл проверку и остался прежним
+     */
+    public boolean reloadConfiguration() {
+        return reloadFromDisk(EnumSet.allOf(ConfigFileWatcher.Target.class));
+    }
+
+    /**
+     * Перезагружает изменившиеся файлы. Каждый менеджер собирает новое
+     * состояние в стороне и подменяет его целиком; битый файл отклоняется.
+     * Вызывается и с потока {@link ConfigFileWatcher}, поэтому синхронизирован.
+     */
+    private synchronized boolean reloadFromDisk(@Nonnull Set<ConfigFileWatcher.Target> changed) {
+        boolean configApplied = false;
+        boolean ok = true;
+        if (changed.contains(ConfigFileWatcher.Target.CONFIG)) {
+            configApplied = configManager.reload();
+            ok = configApplied;
+        }
+        QuestsConfig config = configManager.getConfig();
+
+        if (configApplied || changed.contains(ConfigFileWatcher.Target.LANG)) {
+            langManager.reload(config.getGeneral().getLanguage());
+        }
+        boolean permissionsApplied = changed.contains(ConfigFileWatcher.Target.PERMISSIONS)
+                && PermissionHelper.getInstance().reload();
+
+        if (configApplied) {
+            blockQuestListener.applyBlockRules(config.getBlockRules());
+            notificationScheduler.configure(config.getGeneral().getNotificationWindowMs(),
+                    config.getGeneral().getMaxNotificationsPerSecond());
+            availabilityManager.configureWaitlist(config.getQuestLimits().getMaxWaitlistSize(),
+                    config.getQuestLimits().getWaitlistClaimSeconds() * 1000L);
+            timerService.setRelogGracePeriodMs(config.getTimers().getRelogGracePeriodMs());
+        }
+        if (configApplied || permissionsApplied) {
+            rewardCalculator.refreshAllVipTiers();
+        }
+        return ok;
+    }
+
     // ═════════════════════════════════════════════════════════════
     //  GETTERS
     // ═════════════════════════════════════════════════════════════
@@ -323,8 +419,10 @@ public class EcoTaleQuestsPlugin extends JavaPlugin {
     @Nonnull public QuestAbuseGuard getAbuseGuard() { return abuseGuard; }
     @Nonnull public QuestRewardCalculator getRewardCalculator() { return rewardCalculator; }
     @Nonnull public QuestRankService getRankService() { return rankService; }
+    @Nonnull public LeaderboardService getLeaderboardService() { return leaderboardService; }
     @Nonnull public QuestAvailabilityManager getAvailabilityManager() { return availabilityManager; }
     @Nonnull public TimerService getTimerService() { return timerService; }
+    @Nonnull public BlockQuestListener getBlockQuestListener() { return blockQuestListener; }
     @Nonnull public QuestBoardManager getBoardManager() { return boardManager; }
     @Nonnull public String getVersion() { return VERSION; }
 }
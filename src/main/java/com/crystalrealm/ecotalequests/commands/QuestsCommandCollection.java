@@ -5,6 +5,7 @@ import com.crystalrealm.ecotalequests.gui.AdminQuestsGui;
 import com.crystalrealm.ecotalequests.gui.PlayerQuestsGui;
 import com.crystalrealm.ecotalequests.lang.LangManager;
 import com.crystalrealm.ecotalequests.model.*;
+import com.crystalrealm.ecotalequests.service.LeaderboardService;
 import com.crystalrealm.ecotalequests.service.QuestRankService;
 import com.crystalrealm.ecotalequests.tracker.QuestTracker;
 import com.crystalrealm.ecotalequests.util.MessageUtil;
@@ -41,9 +42,13 @@ public class QuestsCommandCollection extends AbstractCommandCollection {
     private static final Set<String> COMMAND_KEYWORDS = Set.of(
             "quests", "active", "available", "accept", "abandon",
             "info", "stats", "reload", "lang", "langen", "langru", "langpt", "langfr", "langde", "langes", "langcs", "help", "gui", "admin",
-            "rank", "settarget"
+            "rank", "top", "settarget"
     );
 
+    /** Rows per {@code /quests top} page and neighbours shown by {@code /quests top me}. */
+    private static final int TOP_PAGE_SIZE = 10;
+    private static final int TOP_AROUND_RADIUS = 4;
+
     private static Message msg(String miniMessage) {
         return Message.parse(MiniMessageParser.toJson(miniMessage));
     }
@@ -71,6 +76,7 @@ public class QuestsCommandCollection extends AbstractCommandCollection {
         addSubCommand(new LangEsSubCommand());
         addSubCommand(new LangCsSubCommand());
         addSubCommand(new RankSubCommand());
+        addSubCommand(new TopSubCommand());
         addSubCommand(new SetTargetSubCommand());
         addSubCommand(new HelpSubCommand());
     }
@@ -218,6 +224,9 @@ public class QuestsCommandCollection extends AbstractCommandCollection {
                 case ALREADY_ACTIVE  -> context.sendMessage(msg(L(sender, "cmd.accept.already_active")));
                 case RANK_TOO_LOW    -> context.sendMessage(msg(L(sender, "cmd.accept.rank_low")));
                 case SLOTS_FULL      -> context.sendMessage(msg(L(sender, "cmd.accept.slots_full")));
+                case WAITLISTED      -> context.sendMessage(msg(L(sender, "cmd.accept.waitlisted",
+                        "position", String.valueOf(plugin.getAvailabilityManager()
+                                .getWaitlistPosition(questId, sender.getUuid())))));
             }
 
             return done();
@@ -258,6 +267,7 @@ public class QuestsCommandCollection extends AbstractCommandCollection {
                 case NOT_FOUND   -> context.sendMessage(msg(L(sender, "cmd.abandon.not_found", "id", questIdStr)));
                 case NOT_ACTIVE  -> context.sendMessage(msg(L(sender, "cmd.abandon.not_active")));
                 case LIMIT_REACHED -> context.sendMessage(msg(L(sender, "cmd.abandon.limit")));
+                case LEFT_WAITLIST -> context.sendMessage(msg(L(sender, "cmd.abandon.left_waitlist")));
             }
 
             return done();
@@ -389,11 +399,8 @@ public class QuestsCommandCollection extends AbstractCommandCollection {
             CommandSender sender = context.sender();
             if (!checkPerm(sender, context, "ecotalequests.admin.reload")) return done();
 
-            boolean success = plugin.getConfigManager().reload();
+            boolean success = plugin.reloadConfiguration();
             if (success) {
-                String newLang = plugin.getConfigManager().getConfig().getGeneral().getLanguage();
-                plugin.getLangManager().reload(newLang);
-                PermissionHelper.getInstance().reload();
                 context.sendMessage(msg(L(sender, "cmd.reload.success")));
                 LOGGER.info("Configuration reloaded by {}", sender.getDisplayName());
             } else {
@@ -661,11 +668,96 @@ public class QuestsCommandCollection extends AbstractCommandCollection {
             context.sendMessage(msg(L(sender, "cmd.rank.stats",
                     "completed", String.valueOf(data.getTotalCompleted()),
                     "failed", String.valueOf(data.getTotalFailed()))));
+
+            LeaderboardService leaderboard = plugin.getLeaderboardService();
+            int position = leaderboard.getPosition(uuid);
+            if (position > 0) {
+                context.sendMessage(msg(L(sender, "cmd.rank.position",
+                        "pos", String.valueOf(position),
+                        "total", String.valueOf(leaderboard.size()))));
+            }
             context.sendMessage(msg(L(sender, "cmd.rank.footer")));
             return done();
         }
     }
 
+    // ── /quests top [page|me] ─────────────────────────────────
+
+    private class TopSubCommand extends AbstractAsyncCommand {
+        TopSubCommand() { super("top", "Show the quest leaderboard"); }
+
+        @Override
+        public CompletableFuture<Void> executeAsync(CommandContext context) {
+            if (!context.isPlayer()) return done();
+            CommandSender sender = context.sender();
+            if (!checkPerm(sender, context, "ecotalequests.use")) return done();
+
+            UUID uuid = sender.getUuid();
+            LeaderboardService leaderboard = plugin.getLeaderboardService();
+            String arg = parseTrailingArg(context);
+
+            LeaderboardService.Page page;
+            if (arg != null && arg.equalsIgnoreCase("me")) {
+                page = leaderboard.getAround(uuid, TOP_AROUND_RADIUS);
+            } else {
+                int requested = 1;
+                if (arg != null) {
+                    try {
+                        requested = Integer.parseInt(arg);
+                    } catch (NumberFormatException e) {
+                        context.sendMessage(msg(L(sender, "cmd.top.usage")));
+                        return done();
+                    }
+                }
+                page = leaderboard.getPage(requested, TOP_PAGE_SIZE);
+            }
+
+            if (page.page() == 0 && !page.isEmpty()) {
+                // Окно вокруг игрока не выровнено по страницам — показываем диапазон позиций
+                context.sendMessage(msg(L(sender, "cmd.top.header_around",
+                        "from", String.valueOf(page.offset() + 1),
+                        "to", String.valueOf(page.offset() + page.entries().size()),
+                        "total", String.valueOf(page.total()))));
+            } else {
+                context.sendMessage(msg(L(sender, "cmd.top.header",
+                        "page", String.valueOf(Math.max(1, page.page())),
+                        "pages", String.valueOf(Math.max(1, page.totalPages())))));
+            }
+
+            if (page.isEmpty()) {
+                context.sendMessage(msg(L(sender, "cmd.top.empty")));
+            } else {
+                List<PlayerRankData> entries = page.entries();
+                for (int i = 0; i < entries.size(); i++) {
+                    PlayerRankData rd = entries.get(i);
+                    String name = rd.getLastKnownName();
+                    if (name == null || name.isEmpty()) {
+                        name = rd.getPlayerUuid().toString().substring(0, 8);
+                    }
+                    QuestRank rank = rd.getRank();
+                    String key = uuid.equals(rd.getPlayerUuid()) ? "cmd.top.entry_self" : "cmd.top.entry";
+                    context.sendMessage(msg(L(sender, key,
+                            "pos", String.valueOf(page.offset() + i + 1),
+                            "name", name,
+                            "rank", rank.name(), "color", rank.getColor(),
+                            "points", String.valueOf(rd.getRankPoints()),
+                            "completed", String.valueOf(rd.getTotalCompleted()))));
+                }
+            }
+
+            int position = leaderboard.getPosition(uuid);
+            if (position > 0) {
+                context.sendMessage(msg(L(sender, "cmd.top.position",
+                        "pos", String.valueOf(position),
+                        "total", String.valueOf(page.total()))));
+            } else {
+                context.sendMessage(msg(L(sender, "cmd.top.unranked")));
+            }
+            context.sendMessage(msg(L(sender, "cmd.top.footer")));
+            return done();
+        }
+    }
+
     // ── /quests help ────────────────────────────────────────────
 
     private class SetTargetSubCommand extends AbstractAsyncCommand {
@@ -707,6 +799,7 @@ public class QuestsCommandCollection extends AbstractCommandCollection {
             context.sendMessage(msg(L(sender, "cmd.help.info")));
             context.sendMessage(msg(L(sender, "cmd.help.stats")));
             context.sendMessage(msg(L(sender, "cmd.help.rank")));
+            context.sendMessage(msg(L(sender, "cmd.help.top")));
             context.sendMessage(msg(L(sender, "cmd.help.gui")));
             context.sendMessage(msg(L(sender, "cmd.help.admin_gui")));
             context.sendMessage(msg(L(sender, "cmd.help.reload")));
@@ -13,6 +13,11 @@ import java.nio.file.Path;
 /**
  * Менеджер конфигурации — загрузка, сохранение и hot-reload
  * JSON-конфига из директории данных плагина.
+ *
+ * <p>Перезагрузка сначала разбирает и проверяет файл в отдельный объект
+ * и только затем атомарно подменяет текущий конфиг: читатели видят либо
+ * старый, либо новый конфиг целиком. Битый файл отклоняется, текущие
+ * настройки остаются в силе.</p>
  */
 public class ConfigManager {
 
@@ -24,7 +29,7 @@ public class ConfigManager {
             .create();
 
     private final Path dataDirectory;
-    private QuestsConfig config;
+    private volatile QuestsConfig config;
 
     public ConfigManager(@Nonnull Path dataDirectory) {
         this.dataDirectory = dataDirectory;
@@ -63,10 +68,16 @@ public class ConfigManager {
         }
 
         try {
-            loadFromFile(configPath);
+            QuestsConfig loaded = parse(configPath);
+            String problem = validate(loaded);
+            if (problem != null) {
+                LOGGER.error("Config rejected ({}) — keeping current settings.", problem);
+                return false;
+            }
+            config = loaded;
             LOGGER.info("Configuration reloaded successfully.");
             return true;
-        } catch (IOException e) {
+        } catch (IOException | RuntimeException e) {
             LOGGER.error("Failed to reload config: {}", e.getMessage());
             return false;
         }
@@ -93,15 +104,38 @@ public class ConfigManager {
     // ─── Private ──────────────────────────────────────────────────
 
     private void loadFromFile(Path path) throws IOException {
+        QuestsConfig loaded = parse(path);
+        if (loaded == null) {
+            LOGGER.warn("Config parsed as null, using defaults.");
+            loaded = new QuestsConfig();
+        }
+        config = loaded;
+    }
+
+    private static QuestsConfig parse(Path path) throws IOException {
         try (Reader reader = new InputStreamReader(
                 Files.newInputStream(path), StandardCharsets.UTF_8)) {
-            config = GSON.fromJson(reader, QuestsConfig.class);
+            return GSON.fromJson(reader, QuestsConfig.class);
         }
+    }
 
-        if (config == null) {
-            LOGGER.warn("Config parsed as null, using defaults.");
-            config = new QuestsConfig();
-        }
+    /**
+     * Проверяет разобранный конфиг перед подменой.
+     *
+     * @return описание проблемы или null, если конфиг пригоден
+     */
+    private static String validate(QuestsConfig loaded) {
+        if (loaded == null) return "empty file";
+        if (loaded.getGeneral() == null) return "missing General";
+        if (loaded.getQuestLimits() == null) return "missing QuestLimits";
+        if (loaded.getGeneration() == null) return "missing Generation";
+        if (loaded.getRewards() == null) return "missing Rewards";
+        if (loaded.getVipTiers() == null) return "missing VipTiers";
+        if (loaded.getProtection() == null) return "missing Protection";
+        if (loaded.getRanks() == null) return "missing Ranks";
+        if (loaded.getBoards() == null) return "missing Boards";
+        if (loaded.getTimers() == null) return "missing Timers";
+        return null;
     }
 
     private void createDefault(Path path) throws IOException {
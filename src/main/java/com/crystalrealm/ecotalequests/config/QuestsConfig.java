@@ -17,6 +17,7 @@ public class QuestsConfig {
     private RanksSection Ranks = new RanksSection();
     private BoardsSection Boards = new BoardsSection();
     private TimerSection Timers = new TimerSection();
+    private BlockRulesSection BlockRules = new BlockRulesSection();
     private GenericEconomySection GenericEconomy = new GenericEconomySection();
     private GenericLevelingSection GenericLeveling = new GenericLevelingSection();
     private MMOSkillTreeSection MMOSkillTree = new MMOSkillTreeSection();
@@ -33,6 +34,7 @@ public class QuestsConfig {
     public RanksSection getRanks() { return Ranks; }
     public BoardsSection getBoards() { return Boards; }
     public TimerSection getTimers() { return Timers; }
+    public BlockRulesSection getBlockRules() { return BlockRules != null ? BlockRules : new BlockRulesSection(); }
     public GenericEconomySection getGenericEconomy() { return GenericEconomy != null ? GenericEconomy : new GenericEconomySection(); }
     public GenericLevelingSection getGenericLeveling() { return GenericLeveling != null ? GenericLeveling : new GenericLevelingSection(); }
     public MMOSkillTreeSection getMMOSkillTree() { return MMOSkillTree != null ? MMOSkillTree : new MMOSkillTreeSection(); }
@@ -54,6 +56,16 @@ public class QuestsConfig {
         private String LevelProvider = "rpgleveling";
         private String CurrencySymbol = "$";
         private boolean RoundCurrency = false;
+        /** Сколько секунд кешировать уровень игрока из провайдера уровней (0 — без кеша). */
+        private int LevelCacheSeconds = 30;
+        /** Окно объединения HUD-уведомлений о прогрессе одного квеста, мс (0 — без объединения). */
+        private int NotificationWindowMs = 750;
+        /** Максимум HUD-уведомлений игроку в секунду. */
+        private int MaxNotificationsPerSecond = 4;
+        /** Перезагружать конфиг, permissions.json и lang/*.json при изменении файлов. */
+        private boolean WatchConfigFiles = true;
+        /** Пауза после последнего изменения файла перед перезагрузкой, мс. */
+        private int ConfigReloadDebounceMs = 500;
 
         public boolean isDebugMode() { return DebugMode; }
         public void setDebugMode(boolean v) { this.DebugMode = v; }
@@ -72,6 +84,11 @@ public class QuestsConfig {
         public void setCurrencySymbol(String v) { this.CurrencySymbol = v; }
         public boolean isRoundCurrency() { return RoundCurrency; }
         public void setRoundCurrency(boolean v) { this.RoundCurrency = v; }
+        public int getLevelCacheSeconds() { return LevelCacheSeconds; }
+        public int getNotificationWindowMs() { return NotificationWindowMs; }
+        public int getMaxNotificationsPerSecond() { return MaxNotificationsPerSecond > 0 ? MaxNotificationsPerSecond : 4; }
+        public boolean isWatchConfigFiles() { return WatchConfigFiles; }
+        public int getConfigReloadDebounceMs() { return ConfigReloadDebounceMs > 0 ? ConfigReloadDebounceMs : 500; }
     }
 
     /** Настройки reflection-адаптера для произвольного плагина экономики. */
@@ -120,6 +137,8 @@ public class QuestsConfig {
         private int MaxAbandonPerDay = 2;
         private String DailyResetTime = "00:00";
         private String WeeklyResetDay = "MONDAY";
+        private int MaxWaitlistSize = 10;
+        private int WaitlistClaimSeconds = 60;
 
         public int getMaxDailyActive() { return MaxDailyActive; }
         public void setMaxDailyActive(int v) { this.MaxDailyActive = v; }
@@ -133,6 +152,8 @@ public class QuestsConfig {
         public void setMaxAbandonPerDay(int v) { this.MaxAbandonPerDay = v; }
         public String getDailyResetTime() { return DailyResetTime; }
         public String getWeeklyResetDay() { return WeeklyResetDay; }
+        public int getMaxWaitlistSize() { return MaxWaitlistSize; }
+        public int getWaitlistClaimSeconds() { return WaitlistClaimSeconds; }
     }
 
     /** Настройки генерации квестов. */
@@ -340,6 +361,47 @@ public class QuestsConfig {
         public List<Integer> getWarningMinutes() { return WarningMinutes; }
     }
 
+    /**
+     * Правила классификации блоков для квестов MINE_ORE, CHOP_WOOD, HARVEST_CROP.
+     * Правила проверяются по порядку; первое совпавшее определяет тип квеста.
+     */
+    public static class BlockRulesSection {
+        /** Декорации Hytale, вырезаемые из ID блока до приведения к нижнему регистру. */
+        private List<String> StripTokens = List.of("_Block_Eternal_State_Definitions", "_StageFinal", "_Stage");
+        private List<BlockRule> Rules = defaultRules();
+
+        public List<String> getStripTokens() { return StripTokens != null ? StripTokens : List.of(); }
+        /** Явно пустой список отключает правила; умолчания — только если секция без {@code Rules}. */
+        public List<BlockRule> getRules() { return Rules != null ? Rules : defaultRules(); }
+
+        private static List<BlockRule> defaultRules() {
+            return List.of(
+                    new BlockRule("mine_ore", List.of("ore", "_vein"), List.of("_ore", "_vein", "_block")),
+                    new BlockRule("chop_wood", List.of("log", "wood", "trunk"), List.of("_log", "_wood", "_trunk", "_block")),
+                    new BlockRule("harvest_crop", List.of("plant_crop_", "crop_"), List.of("plant_crop_", "crop_", "_block"))
+            );
+        }
+    }
+
+    /** Одно правило: тип квеста, маркеры в ID блока и токены, вырезаемые для получения цели. */
+    public static class BlockRule {
+        private String Type;
+        private List<String> Contains = new ArrayList<>();
+        private List<String> Strip = new ArrayList<>();
+
+        public BlockRule() {}
+
+        public BlockRule(String type, List<String> contains, List<String> strip) {
+            this.Type = type;
+            this.Contains = contains;
+            this.Strip = strip;
+        }
+
+        public String getType() { return Type; }
+        public List<String> getContains() { return Contains != null ? Contains : List.of(); }
+        public List<String> getStrip() { return Strip != null ? Strip : List.of(); }
+    }
+
     /**
      * Запись кастомного квеста — задаётся администратором вручную.
      * Эти квесты добавляются в пул генерации наравне с автогенерируемыми.
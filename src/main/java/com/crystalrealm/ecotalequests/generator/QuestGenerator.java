@@ -9,6 +9,7 @@ import javax.annotation.Nullable;
 import java.time.*;
 import java.time.temporal.TemporalAdjusters;
 import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * Генератор квестов — создаёт пул daily/weekly квестов
@@ -22,9 +23,9 @@ public class QuestGenerator {
     private static final PluginLogger LOGGER = PluginLogger.forEnclosingClass();
     private static final Random RANDOM = new Random();
 
-    private final QuestsConfig config;
+    private final Supplier<QuestsConfig> config;
 
-    public QuestGenerator(@Nonnull QuestsConfig config) {
+    public QuestGenerator(@Nonnull Supplier<QuestsConfig> config) {
         this.config = config;
     }
 
@@ -40,7 +41,7 @@ public class QuestGenerator {
      */
     @Nonnull
     public List<Quest> generateDailyPool(int playerLevel) {
-        int poolSize = config.getQuestLimits().getDailyPoolSize();
+        int poolSize = config.get().getQuestLimits().getDailyPoolSize();
         return generatePool(QuestPeriod.DAILY, poolSize, playerLevel);
     }
 
@@ -49,7 +50,7 @@ public class QuestGenerator {
      */
     @Nonnull
     public List<Quest> generateWeeklyPool(int playerLevel) {
-        int poolSize = config.getQuestLimits().getWeeklyPoolSize();
+        int poolSize = config.get().getQuestLimits().getWeeklyPoolSize();
         return generatePool(QuestPeriod.WEEKLY, poolSize, playerLevel);
     }
 
@@ -110,7 +111,7 @@ public class QuestGenerator {
     @Nonnull
     public List<Quest> buildCustomQuests(QuestPeriod period) {
         List<Quest> result = new ArrayList<>();
-        List<QuestsConfig.CustomQuestEntry> entries = config.getCustomQuests();
+        List<QuestsConfig.CustomQuestEntry> entries = config.get().getCustomQuests();
         if (entries == null || entries.isEmpty()) return result;
 
         for (QuestsConfig.CustomQuestEntry entry : entries) {
@@ -126,7 +127,7 @@ public class QuestGenerator {
             }
 
             // Skip disabled quest types
-            if (config.getGeneration().isQuestTypeDisabled(type.getId())) continue;
+            if (config.get().getGeneration().isQuestTypeDisabled(type.getId())) continue;
 
             UUID questId = UUID.nameUUIDFromBytes(("custom:" + entry.getId()).getBytes());
             QuestObjective objective = new QuestObjective(type, entry.getTarget(), entry.getAmount());
@@ -171,7 +172,7 @@ public class QuestGenerator {
      */
     private List<QuestCandidate> buildCandidates(QuestPeriod period, int playerLevel) {
         List<QuestCandidate> candidates = new ArrayList<>();
-        QuestsConfig.GenerationSection gen = config.getGeneration();
+        QuestsConfig.GenerationSection gen = config.get().getGeneration();
 
         // Kill Mobs
         for (Map.Entry<String, QuestsConfig.QuestTemplate> entry : gen.getKillMobs().entrySet()) {
@@ -254,7 +255,7 @@ public class QuestGenerator {
         QuestObjective objective = new QuestObjective(candidate.type, candidate.target, amount);
 
         // Рассчитываем награду
-        QuestsConfig.RewardsSection rewards = config.getRewards();
+        QuestsConfig.RewardsSection rewards = config.get().getRewards();
         double baseCoins = period == QuestPeriod.WEEKLY ? rewards.getBaseWeeklyCoins() : rewards.getBaseDailyCoins();
         int baseXp = period == QuestPeriod.WEEKLY ? rewards.getBaseWeeklyXP() : rewards.getBaseDailyXP();
 
@@ -327,7 +328,7 @@ public class QuestGenerator {
      */
     private int determineDuration(QuestCandidate candidate, QuestPeriod period,
                                   QuestAccessType accessType) {
-        int defaultDuration = config.getTimers().getDefaultDurationMinutes();
+        int defaultDuration = config.get().getTimers().getDefaultDurationMinutes();
 
         // GLOBAL_UNIQUE и LIMITED_SLOTS всегда имеют таймер
         if (accessType == QuestAccessType.GLOBAL_UNIQUE) {
@@ -351,7 +352,7 @@ public class QuestGenerator {
      */
     @Nullable
     private QuestRank determineRequiredRank(QuestCandidate candidate, int minLevel) {
-        if (!config.getRanks().isEnabled()) return null;
+        if (!config.get().getRanks().isEnabled()) return null;
 
         // Маппинг: уровень → ранг
         if (minLevel >= 25) return QuestRank.A;
@@ -366,7 +367,7 @@ public class QuestGenerator {
      */
     private int calculateRankPoints(QuestCandidate candidate, QuestPeriod period,
                                     @Nullable QuestRank requiredRank) {
-        int base = config.getRanks().getBaseRankPoints();
+        int base = config.get().getRanks().getBaseRankPoints();
 
         // Недельные дают больше
         if (period == QuestPeriod.WEEKLY) base *= 3;
@@ -395,7 +396,7 @@ public class QuestGenerator {
         LocalDateTime expires;
         if (period == QuestPeriod.WEEKLY) {
             // Следующий понедельник в 00:00
-            String resetDay = config.getQuestLimits().getWeeklyResetDay();
+            String resetDay = config.get().getQuestLimits().getWeeklyResetDay();
             DayOfWeek day;
             try {
                 day = DayOfWeek.valueOf(resetDay.toUpperCase());
@@ -294,10 +294,8 @@ public final class AdminQuestsGui extends InteractiveCustomUIPage<AdminQuestsGui
             }
 
             case "reload" -> {
-                boolean success = configMgr.reload();
+                boolean success = plugin.reloadConfiguration();
                 if (success) {
-                    String newLang = configMgr.getConfig().getGeneral().getLanguage();
-                    plugin.getLangManager().reload(newLang);
                     refreshPage(null, L(lang, "cmd.reload.success"));
                 } else {
                     refreshPage(L(lang, "cmd.reload.fail"), null);
@@ -2,7 +2,9 @@ package com.crystalrealm.ecotalequests.gui;
 
 import com.crystalrealm.ecotalequests.EcoTaleQuestsPlugin;
 import com.crystalrealm.ecotalequests.lang.LangManager;
+import com.crystalrealm.ecotalequests.lang.QuestDisplayCache;
 import com.crystalrealm.ecotalequests.model.*;
+import com.crystalrealm.ecotalequests.service.LeaderboardService;
 import com.crystalrealm.ecotalequests.service.QuestAvailabilityManager;
 import com.crystalrealm.ecotalequests.service.TimerService;
 import com.crystalrealm.ecotalequests.tracker.QuestTracker;
@@ -34,7 +36,8 @@ import java.util.*;
  *   <li><b>Daily</b>  — available daily quests (up to 10 slots, D1–D10)</li>
  *   <li><b>Weekly</b> — available weekly quests (up to 5 slots, W1–W5)</li>
  *   <li><b>Active</b> — player's active quests with progress (up to 6 slots, A1–A6)</li>
- *   <li><b>Top</b>    — leaderboard of top players by rank points (up to 10 rows, T1–T10)</li>
+ *   <li><b>Top</b>    — paginated leaderboard by rank points (10 rows per page, T1–T10),
+ *       with the viewer's own position and a jump to the page containing it</li>
  * </ul>
  *
  * <p>Slot-based event binding: events are bound once in {@link #build}, resolved
@@ -73,6 +76,9 @@ public final class PlayerQuestsGui extends InteractiveCustomUIPage<PlayerQuestsG
     @Nullable private final String errorMessage;
     @Nullable private final String successMessage;
 
+    /** Current leaderboard page (1-based); events are bound once, so paging is stateful. */
+    private int topPage = 1;
+
     // Saved for re-open
     private Ref<EntityStore> savedRef;
     private Store<EntityStore> savedStore;
@@ -168,6 +174,14 @@ public final class PlayerQuestsGui extends InteractiveCustomUIPage<PlayerQuestsG
         events.addEventBinding(CustomUIEventBindingType.Activating, "#TabTop",
                 new EventData().append(KEY_ACTION, "tab").append(KEY_TAB, "top"));
 
+        // Leaderboard pager
+        events.addEventBinding(CustomUIEventBindingType.Activating, "#TopPrev",
+                new EventData().append(KEY_ACTION, "top_prev"));
+        events.addEventBinding(CustomUIEventBindingType.Activating, "#TopNext",
+                new EventData().append(KEY_ACTION, "top_next"));
+        events.addEventBinding(CustomUIEventBindingType.Activating, "#TopMe",
+                new EventData().append(KEY_ACTION, "top_me"));
+
         // Daily accept buttons (D1–D10)
         for (int i = 1; i <= MAX_DAILY; i++) {
             events.addEventBinding(CustomUIEventBindingType.Activating, "#D" + i + "Btn",
@@ -205,7 +219,7 @@ public final class PlayerQuestsGui extends InteractiveCustomUIPage<PlayerQuestsG
         updateActiveData(cmd, lang);
         updateTopData(cmd, lang);
 
-        LOGGER.info("Quest GUI built for {} (tab={})", playerUuid, selectedTab);
+        LOGGER.debug("Quest GUI built for {} (tab={})", playerUuid, selectedTab);
     }
 
     // ════════════════════════════════════════════════════════
@@ -241,6 +255,13 @@ public final class PlayerQuestsGui extends InteractiveCustomUIPage<PlayerQuestsG
                 }
             }
 
+            case "top_prev" -> showTopPage(lang, topPage - 1);
+            case "top_next" -> showTopPage(lang, topPage + 1);
+            case "top_me" -> {
+                int myPage = plugin.getLeaderboardService().getPageOf(playerUuid, MAX_TOP);
+                showTopPage(lang, myPage > 0 ? myPage : 1);
+            }
+
             case "accept_daily" -> {
                 int slot = parseSlot(data.slot);
                 List<Quest> quests = tracker.getAvailableQuests(playerUuid, QuestPeriod.DAILY);
@@ -264,7 +285,7 @@ public final class PlayerQuestsGui extends InteractiveCustomUIPage<PlayerQuestsG
                 PlayerQuestData pqd = active.get(slot - 1);
 
                 QuestTracker.AbandonResult result = tracker.abandonQuest(playerUuid, pqd.getQuestId());
-                LOGGER.info("GUI abandon slot {} -> {}", slot, result);
+                LOGGER.debug("GUI abandon slot {} -> {}", slot, result);
 
                 String msg = switch (result) {
                     case SUCCESS      -> L(lang, "cmd.abandon.success");
@@ -272,11 +293,12 @@ public final class PlayerQuestsGui extends InteractiveCustomUIPage<PlayerQuestsG
                             "id", pqd.getQuestId().toString().substring(0, 8));
                     case NOT_ACTIVE   -> L(lang, "cmd.abandon.not_active");
                     case LIMIT_REACHED -> L(lang, "cmd.abandon.limit");
+                    case LEFT_WAITLIST -> L(lang, "cmd.abandon.left_waitlist");
                 };
 
-                refreshPage(result == QuestTracker.AbandonResult.SUCCESS ? null : msg,
-                        result == QuestTracker.AbandonResult.SUCCESS ? msg : null,
-                        "active");
+                boolean ok = result == QuestTracker.AbandonResult.SUCCESS
+                        || result == QuestTracker.AbandonResult.LEFT_WAITLIST;
+                refreshPage(ok ? null : msg, ok ? msg : null, "active");
             }
         }
     }
@@ -294,7 +316,7 @@ public final class PlayerQuestsGui extends InteractiveCustomUIPage<PlayerQuestsG
         }
 
         QuestTracker.AcceptResult result = tracker.acceptQuest(playerUuid, questId);
-        LOGGER.info("GUI accept {} -> {}", questId, result);
+        LOGGER.debug("GUI accept {} -> {}", questId, result);
 
         String msg = switch (result) {
             case SUCCESS -> {
@@ -310,6 +332,8 @@ public final class PlayerQuestsGui extends InteractiveCustomUIPage<PlayerQuestsG
                     "id", questId.toString().substring(0, 8));
             case RANK_TOO_LOW    -> L(lang, "cmd.accept.rank_low");
             case SLOTS_FULL      -> L(lang, "cmd.accept.slots_full");
+            case WAITLISTED      -> L(lang, "cmd.accept.waitlisted", "position",
+                    String.valueOf(plugin.getAvailabilityManager().getWaitlistPosition(questId, playerUuid)));
         };
 
         // On success, switch to active tab so player sees their new quest
@@ -502,7 +526,7 @@ public final class PlayerQuestsGui extends InteractiveCustomUIPage<PlayerQuestsG
         TimerService timerService = plugin.getQuestTracker().getTimerService();
         String abandonText = L(lang, "gui.btn.abandon");
 
-        LOGGER.info("[updateActiveData] player={} active quests count={}", playerUuid, active.size());
+        LOGGER.debug("[updateActiveData] player={} active quests count={}", playerUuid, active.size());
 
         boolean empty = active.isEmpty();
         cmd.set("#NoActiveMsg.Visible", empty);
@@ -567,16 +591,24 @@ public final class PlayerQuestsGui extends InteractiveCustomUIPage<PlayerQuestsG
     //  TOP (LEADERBOARD) TAB
     // ════════════════════════════════════════════════════════
 
-    private void updateTopData(UICommandBuilder cmd, LangManager lang) {
-        Collection<PlayerRankData> allData = plugin.getStorage().getAllRankData();
+    private void showTopPage(LangManager lang, int page) {
+        topPage = page;
+        try {
+            UICommandBuilder topCmd = new UICommandBuilder();
+            updateTopData(topCmd, lang);
+            sendUpdate(topCmd);
+        } catch (Exception e) {
+            LOGGER.warn("[top] sendUpdate failed: {}", e.getMessage());
+            reopen(null, null, "top");
+        }
+    }
 
-        // Sort by rank points descending, then by totalCompleted descending
-        List<PlayerRankData> sorted = allData.stream()
-                .filter(d -> d.getRankPoints() > 0 || d.getTotalCompleted() > 0)
-                .sorted(Comparator.comparingInt(PlayerRankData::getRankPoints).reversed()
-                        .thenComparingInt(PlayerRankData::getTotalCompleted).reversed())
-                .limit(MAX_TOP)
-                .toList();
+    private void updateTopData(UICommandBuilder cmd, LangManager lang) {
+        // Indexed by rank points desc, then totalCompleted desc; pages are cached per index version
+        LeaderboardService leaderboard = plugin.getLeaderboardService();
+        LeaderboardService.Page page = leaderboard.getPage(topPage, MAX_TOP);
+        topPage = page.page();
+        List<PlayerRankData> sorted = page.entries();
 
         // Header columns
         cmd.set("#TopHPos.Text", L(lang, "gui.top.h_pos"));
@@ -590,8 +622,8 @@ public final class PlayerQuestsGui extends InteractiveCustomUIPage<PlayerQuestsG
         if (empty) cmd.set("#NoTopMsg.Text", stripForUI(L(lang, "gui.top.empty")));
 
         for (int i = 0; i < MAX_TOP; i++) {
-            int n = i + 1;
-            String p = "#T" + n;
+            int n = page.offset() + i + 1;
+            String p = "#T" + (i + 1);
             if (i < sorted.size()) {
                 PlayerRankData rd = sorted.get(i);
                 QuestRank rank = rd.getRank();
@@ -610,6 +642,15 @@ public final class PlayerQuestsGui extends InteractiveCustomUIPage<PlayerQuestsG
                 cmd.set(p + ".Visible", false);
             }
         }
+
+        // Pager + own position
+        cmd.set("#TopPageLabel.Text", L(lang, "gui.top.page",
+                "page", String.valueOf(page.page()), "pages", String.valueOf(page.totalPages())));
+        cmd.set("#TopMe.Text", L(lang, "gui.top.me"));
+        int position = leaderboard.getPosition(playerUuid);
+        cmd.set("#TopMyPos.Text", position > 0
+                ? L(lang, "gui.top.my_pos", "pos", String.valueOf(position), "total", String.valueOf(page.total()))
+                : L(lang, "gui.top.unranked"));
     }
 
     // ════════════════════════════════════════════════════════
@@ -644,14 +685,7 @@ public final class PlayerQuestsGui extends InteractiveCustomUIPage<PlayerQuestsG
     }
 
     private String localizedDesc(LangManager lang, Quest quest) {
-        QuestObjective obj = quest.getObjective();
-        String typeKey = "quest.desc." + obj.getType().getId();
-        String target = obj.getTarget();
-        String display = (target != null && !target.isEmpty())
-                ? L(lang, "target." + target.toLowerCase()) : "";
-        return L(lang, typeKey,
-                "amount", String.valueOf((int) obj.getRequiredAmount()),
-                "target", display);
+        return lang.getDisplayCache().forPlayer(playerUuid, quest).description();
     }
 
     /**
@@ -697,14 +731,11 @@ public final class PlayerQuestsGui extends InteractiveCustomUIPage<PlayerQuestsG
                     "max", String.valueOf(quest.getMaxSlots())));
         }
 
-        if (quest.hasTimer()) {
-            if (!sb.isEmpty()) sb.append("  |  ");
-            sb.append(L(lang, "gui.timer_info", "minutes", String.valueOf(quest.getDurationMinutes())));
-        }
-
-        if (quest.getRankPoints() > 0) {
-            if (!sb.isEmpty()) sb.append("  |  ");
-            sb.append("+" + quest.getRankPoints() + " RP");
+        // Таймер и RP неизменны — берутся из кеша
+        String tail = lang.getDisplayCache().forPlayer(playerUuid, quest).sublineTail();
+        if (!tail.isEmpty()) {
+            if (!sb.isEmpty()) sb.append(QuestDisplayCache.SUBLINE_SEPARATOR);
+            sb.append(tail);
         }
 
         return sb.toString();
@@ -750,9 +781,7 @@ public final class PlayerQuestsGui extends InteractiveCustomUIPage<PlayerQuestsG
 
     /** Format coin reward for display using config symbol & rounding. */
     private String formatRewardCoins(double coins) {
-        var general = plugin.getConfigManager().getConfig().getGeneral();
-        String formatted = MessageUtil.formatCoins(coins, general.isRoundCurrency());
-        return "+" + formatted + general.getCurrencySymbol();
+        return MessageUtil.appendCurrency(new StringBuilder(16).append('+'), coins).toString();
     }
 
     private static int parseSlot(String s) {
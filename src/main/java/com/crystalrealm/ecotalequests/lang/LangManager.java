@@ -2,6 +2,7 @@ package com.crystalrealm.ecotalequests.lang;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
+import com.crystalrealm.ecotalequests.util.MiniMessageParser;
 import com.crystalrealm.ecotalequests.util.PluginLogger;
 
 import javax.annotation.Nonnull;
@@ -16,8 +17,12 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * Менеджер локализации с поддержкой RU/EN.
  * Загружает из ресурсов JAR + пользовательские переопределения.
+ *
+ * <p>После загрузки каждая строка компилируется в {@link LangTemplate};
+ * {@link #getForLang} подставляет аргументы за один проход, а строки без
+ * аргументов (названия целей, типы квестов) отдаются готовыми.</p>
  */
-public class LangManager {
+public final class LangManager {
 
     private static final PluginLogger LOGGER = PluginLogger.forEnclosingClass();
     private static final Gson GSON = new Gson();
@@ -26,9 +31,13 @@ public class LangManager {
     public static final List<String> SUPPORTED_LANGS = List.of("en", "ru", "pt_br", "fr", "de", "es", "cs", "hu");
     public static final String DEFAULT_LANG = "ru";
 
-    private final Map<String, Map<String, String>> translations = new HashMap<>();
+    /** Исходные строки: lang → key → текст. Подменяется целиком при загрузке. */
+    private volatile Map<String, Map<String, String>> translations = Map.of();
+    /** Скомпилированные строки: lang → key → шаблон. Пересобирается целиком при загрузке. */
+    private volatile Map<String, Map<String, LangTemplate>> templates = Map.of();
+    private final QuestDisplayCache displayCache = new QuestDisplayCache(this);
     private final Map<UUID, String> playerLangs = new ConcurrentHashMap<>();
-    private String serverLang;
+    private volatile String serverLang;
     private final Path dataDirectory;
 
     public LangManager(@Nonnull Path dataDirectory) {
@@ -37,23 +46,57 @@ public class LangManager {
     }
 
     public void load(@Nonnull String defaultLang) {
-        this.serverLang = SUPPORTED_LANGS.contains(defaultLang) ? defaultLang : DEFAULT_LANG;
+        loadInto(defaultLang, false);
+    }
 
-        for (String lang : SUPPORTED_LANGS) {
-            Map<String, String> messages = loadLangFile(lang);
+    /**
+     * Перезагружает строки. Всё собирается заново в стороне и публикуется
+     * одной подменой; если пользовательский файл не разобрался, текущие
+     * строки остаются в силе. После применения сбрасываются кеши,
+     * построенные по старым строкам, включая скомпилированные шаблоны
+     * {@link MiniMessageParser}.
+     *
+     * @return true если новые строки применены
+     */
+    public boolean reload(@Nonnull String defaultLang) {
+        boolean applied = loadInto(defaultLang, true);
+        if (applied) {
+            displayCache.clear();
+            MiniMessageParser.clearTemplateCache();
+        }
+        return applied;
+    }
+
+    private boolean loadInto(@Nonnull String defaultLang, boolean strict) {
+        String lang = SUPPORTED_LANGS.contains(defaultLang) ? defaultLang : DEFAULT_LANG;
+
+        Map<String, Map<String, String>> loaded = new HashMap<>();
+        for (String code : SUPPORTED_LANGS) {
+            Map<String, String> messages = loadLangFile(code);
             if (messages != null && !messages.isEmpty()) {
-                translations.put(lang, messages);
-                LOGGER.info("Loaded {} messages for locale '{}'.", messages.size(), lang);
+                loaded.put(code, new HashMap<>(messages));
+                LOGGER.info("Loaded {} messages for locale '{}'.", messages.size(), code);
             }
         }
         exportDefaultLangs();
-        loadCustomOverrides();
+        boolean overridesOk = loadCustomOverrides(loaded);
+        if (strict && !overridesOk && !translations.isEmpty()) {
+            LOGGER.error("Lang files rejected — keeping current translations.");
+            return false;
+        }
+
+        Map<String, Map<String, LangTemplate>> compiled = compileTemplates(loaded);
+        translations = loaded;
+        templates = compiled;
+        serverLang = lang;
         LOGGER.info("LangManager initialized. Server language: '{}'", serverLang);
+        return true;
     }
 
-    public void reload(@Nonnull String defaultLang) {
-        translations.clear();
-        load(defaultLang);
+    /** Кеш локализованных строк квестов (сбрасывается при перезагрузке). */
+    @Nonnull
+    public QuestDisplayCache getDisplayCache() {
+        return displayCache;
     }
 
     // ── Message Retrieval ───────────────────────────────────────
@@ -65,13 +108,8 @@ public class LangManager {
 
     @Nonnull
     public String getForLang(@Nonnull String langCode, @Nonnull String key, @Nonnull String... args) {
-        String message = getRaw(langCode, key);
-        if (args.length >= 2) {
-            for (int i = 0; i < args.length - 1; i += 2) {
-                message = message.replace("{" + args[i] + "}", args[i + 1]);
-            }
-        }
-        return message;
+        LangTemplate template = findTemplate(langCode, key);
+        return template != null ? template.format(args) : key;
     }
 
     @Nonnull
@@ -80,6 +118,16 @@ public class LangManager {
         return getForLang(lang, key, args);
     }
 
+    /**
+     * Возвращает исходный шаблон сообщения на языке игрока (без подстановки) —
+     * для {@code MessageUtil.sendTemplate}, который компилирует его один раз.
+     */
+    @Nonnull
+    public String getTemplateForPlayer(@Nonnull UUID playerUuid, @Nonnull String key) {
+        String lang = playerLangs.getOrDefault(playerUuid, serverLang);
+        return getRaw(lang, key);
+    }
+
     @Nonnull
     public String getPrefixForPlayer(@Nonnull UUID playerUuid) {
         String lang = playerLangs.getOrDefault(playerUuid, serverLang);
@@ -88,19 +136,40 @@ public class LangManager {
 
     @Nonnull
     private String getRaw(@Nonnull String langCode, @Nonnull String key) {
-        Map<String, String> messages = translations.get(langCode);
+        LangTemplate template = findTemplate(langCode, key);
+        return template != null ? template.source() : key;
+    }
+
+    /** Шаблон на языке {@code langCode}, с откатом на английский. */
+    private LangTemplate findTemplate(@Nonnull String langCode, @Nonnull String key) {
+        Map<String, Map<String, LangTemplate>> all = templates;
+        Map<String, LangTemplate> messages = all.get(langCode);
         if (messages != null) {
-            String value = messages.get(key);
-            if (value != null) return value;
+            LangTemplate template = messages.get(key);
+            if (template != null) return template;
         }
         if (!"en".equals(langCode)) {
-            Map<String, String> en = translations.get("en");
-            if (en != null) {
-                String value = en.get(key);
-                if (value != null) return value;
+            Map<String, LangTemplate> en = all.get("en");
+            if (en != null) return en.get(key);
+        }
+        return null;
+    }
+
+    /**
+     * Компилирует все загруженные строки (публикует вызывающий).
+     */
+    private static Map<String, Map<String, LangTemplate>> compileTemplates(Map<String, Map<String, String>> loaded) {
+        Map<String, Map<String, LangTemplate>> compiled = new HashMap<>();
+        for (Map.Entry<String, Map<String, String>> lang : loaded.entrySet()) {
+            Map<String, LangTemplate> entries = new HashMap<>(lang.getValue().size() * 2);
+            for (Map.Entry<String, String> entry : lang.getValue().entrySet()) {
+                if (entry.getValue() != null) {
+                    entries.put(entry.getKey(), LangTemplate.compile(entry.getValue()));
+                }
             }
+            compiled.put(lang.getKey(), entries);
         }
-        return key;
+        return compiled;
     }
 
     // ── Player Language ─────────────────────────────────────────
@@ -121,6 +190,12 @@ public class LangManager {
 
     @Nonnull public String getServerLang() { return serverLang; }
 
+    /** Папка пользовательских файлов локализации ({@code lang/*.json}). */
+    @Nonnull
+    public Path getLangDirectory() {
+        return dataDirectory.resolve("lang");
+    }
+
     // ── Loading ─────────────────────────────────────────────────
 
     private Map<String, String> loadLangFile(String langCode) {
@@ -136,29 +211,35 @@ public class LangManager {
         }
     }
 
-    private void loadCustomOverrides() {
+    /**
+     * @return false если хотя бы один файл не удалось прочитать
+     */
+    private boolean loadCustomOverrides(Map<String, Map<String, String>> loaded) {
         Path langDir = dataDirectory.resolve("lang");
-        if (!Files.isDirectory(langDir)) return;
+        if (!Files.isDirectory(langDir)) return true;
 
-        try {
-            Files.list(langDir)
-                    .filter(p -> p.toString().endsWith(".json"))
+        boolean[] ok = {true};
+        try (var files = Files.list(langDir)) {
+            files.filter(p -> p.toString().endsWith(".json"))
                     .forEach(customFile -> {
                         String fileName = customFile.getFileName().toString();
                         String langCode = fileName.replace(".json", "").toLowerCase();
                         try (Reader reader = Files.newBufferedReader(customFile, StandardCharsets.UTF_8)) {
                             Map<String, String> overrides = GSON.fromJson(reader, MAP_TYPE);
                             if (overrides != null && !overrides.isEmpty()) {
-                                translations.computeIfAbsent(langCode, k -> new HashMap<>()).putAll(overrides);
+                                loaded.computeIfAbsent(langCode, k -> new HashMap<>()).putAll(overrides);
                                 LOGGER.info("Applied {} custom overrides for '{}'.", overrides.size(), langCode);
                             }
                         } catch (Exception e) {
+                            ok[0] = false;
                             LOGGER.error("Failed to load custom lang file: " + customFile, e);
                         }
                     });
         } catch (IOException e) {
             LOGGER.error("Failed to scan lang directory", e);
+            return false;
         }
+        return ok[0];
     }
 
     /**
@@ -0,0 +1,99 @@
+package com.crystalrealm.ecotalequests.lang;
+
+import com.crystalrealm.ecotalequests.util.MiniMessageParser;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Предкомпилированная строка локализации с плейсхолдерами {@code {name}}.
+ *
+ * <p>Строка разбивается один раз на статические части и именованные слоты;
+ * подстановка выполняется за один проход в переиспользуемый
+ * {@link StringBuilder} потока. Строки без плейсхолдеров возвращаются
+ * как есть, без аллокаций.</p>
+ *
+ * <p>В отличие от последовательных {@code replace}, значения аргументов
+ * не сканируются повторно: плейсхолдер внутри значения остаётся текстом.</p>
+ *
+ * <p>Грамматика имён общая с {@link MiniMessageParser.Template}
+ * ({@link MiniMessageParser#placeholderEnd}).</p>
+ */
+final class LangTemplate {
+
+    private static final int MAX_POOLED_CAPACITY = 8192;
+    private static final ThreadLocal<StringBuilder> BUILDER =
+            ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final String source;
+    /** {@code parts[i]} предшествует слоту {@code i}; частей на одну больше, чем слотов. */
+    private final String[] parts;
+    private final String[] slotNames;
+
+    private LangTemplate(String source, String[] parts, String[] slotNames) {
+        this.source = source;
+        this.parts = parts;
+        this.slotNames = slotNames;
+    }
+
+    @Nonnull
+    static LangTemplate compile(@Nonnull String source) {
+        List<String> parts = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int last = 0;
+        int open = source.indexOf('{');
+        while (open >= 0) {
+            int close = MiniMessageParser.placeholderEnd(source, open);
+            if (close < 0) {
+                open = source.indexOf('{', open + 1);
+                continue;
+            }
+            parts.add(source.substring(last, open));
+            names.add(source.substring(open + 1, close));
+            last = close + 1;
+            open = source.indexOf('{', last);
+        }
+        parts.add(source.substring(last));
+        return new LangTemplate(source, parts.toArray(new String[0]), names.toArray(new String[0]));
+    }
+
+    /** Исходная строка (без подстановок). */
+    @Nonnull
+    String source() {
+        return source;
+    }
+
+    /**
+     * Подставляет аргументы.
+     *
+     * @param args пары имя/значение; отсутствующие плейсхолдеры остаются как есть
+     */
+    @Nonnull
+    String format(@Nonnull String... args) {
+        if (slotNames.length == 0 || args.length < 2) return source;
+
+        StringBuilder sb = BUILDER.get();
+        sb.setLength(0);
+        for (int s = 0; s < slotNames.length; s++) {
+            sb.append(parts[s]);
+            String value = lookup(slotNames[s], args);
+            if (value != null) {
+                sb.append(value);
+            } else {
+                sb.append('{').append(slotNames[s]).append('}');
+            }
+        }
+        sb.append(parts[slotNames.length]);
+        String result = sb.toString();
+        if (sb.capacity() > MAX_POOLED_CAPACITY) BUILDER.remove();
+        return result;
+    }
+
+    private static String lookup(String name, String[] args) {
+        for (int a = 0; a + 1 < args.length; a += 2) {
+            if (name.equals(args[a])) return args[a + 1];
+        }
+        return null;
+    }
+}
@@ -0,0 +1,105 @@
+package com.crystalrealm.ecotalequests.lang;
+
+import com.crystalrealm.ecotalequests.model.Quest;
+import com.crystalrealm.ecotalequests.model.QuestObjective;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кеш локализованных строк отображения квестов по ключу (язык, questId).
+ *
+ * <p>Квест после генерации неизменен, поэтому короткое имя, полное описание
+ * и статическая часть подстроки (таймер, очки ранга) строятся один раз на
+ * язык и дальше отдаются из кеша. Заполняется лениво; сбрасывается при
+ * перезагрузке локализации ({@link LangManager#reload}) и при смене пула
+ * квестов.</p>
+ */
+public class QuestDisplayCache {
+
+    /** Разделитель частей подстроки квеста. */
+    public static final String SUBLINE_SEPARATOR = "  |  ";
+
+    /**
+     * Готовые строки квеста на одном языке.
+     *
+     * @param shortName   короткое имя для прогресса: «Медь», «Валюта»
+     * @param description полное описание: «Добыть: Медь ×22»
+     * @param sublineTail статическая часть подстроки (таймер, RP), может быть пустой
+     */
+    public record QuestDisplay(@Nonnull String shortName,
+                               @Nonnull String description,
+                               @Nonnull String sublineTail) {}
+
+    private final LangManager langManager;
+    private final Map<String, Map<UUID, QuestDisplay>> byLang = new ConcurrentHashMap<>();
+
+    QuestDisplayCache(@Nonnull LangManager langManager) {
+        this.langManager = langManager;
+    }
+
+    /**
+     * Строки квеста на языке игрока.
+     */
+    @Nonnull
+    public QuestDisplay forPlayer(@Nonnull UUID playerUuid, @Nonnull Quest quest) {
+        return get(langManager.getPlayerLang(playerUuid), quest);
+    }
+
+    /**
+     * Строки квеста на заданном языке.
+     */
+    @Nonnull
+    public QuestDisplay get(@Nonnull String langCode, @Nonnull Quest quest) {
+        return byLang.computeIfAbsent(langCode, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(quest.getQuestId(), id -> build(langCode, quest));
+    }
+
+    /** Сбрасывает кеш целиком (перезагрузка локализации, новый пул). */
+    public void clear() {
+        byLang.clear();
+    }
+
+    /** Количество закешированных записей (для диагностики). */
+    public int size() {
+        int total = 0;
+        for (Map<UUID, QuestDisplay> entries : byLang.values()) total += entries.size();
+        return total;
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    //  INTERNAL
+    // ═════════════════════════════════════════════════════════════
+
+    private QuestDisplay build(String lang, Quest quest) {
+        QuestObjective obj = quest.getObjective();
+        String target = obj.getTarget();
+        boolean hasTarget = target != null && !target.isEmpty();
+        String targetDisplay = hasTarget
+                ? langManager.getForLang(lang, "target." + target.toLowerCase())
+                : "";
+
+        // Для квестов без цели (earn_coins, gain_xp) — название типа
+        String shortName = hasTarget
+                ? targetDisplay
+                : langManager.getForLang(lang, "quest.type." + obj.getType().getId());
+
+        String description = langManager.getForLang(lang, "quest.desc." + obj.getType().getId(),
+                "amount", String.valueOf((int) obj.getRequiredAmount()),
+                "target", targetDisplay);
+
+        StringBuilder tail = new StringBuilder();
+        if (quest.hasTimer()) {
+            tail.append(langManager.getForLang(lang, "gui.timer_info",
+                    "minutes", String.valueOf(quest.getDurationMinutes())));
+        }
+        if (quest.getRankPoints() > 0) {
+            if (!tail.isEmpty()) tail.append(SUBLINE_SEPARATOR);
+            tail.append("+").append(quest.getRankPoints()).append(" RP");
+        }
+
+        return new QuestDisplay(shortName, description, tail.toString());
+    }
+}
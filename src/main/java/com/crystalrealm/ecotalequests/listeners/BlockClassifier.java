@@ -0,0 +1,183 @@
+package com.crystalrealm.ecotalequests.listeners;
+
+import com.crystalrealm.ecotalequests.config.QuestsConfig;
+import com.crystalrealm.ecotalequests.model.QuestType;
+import com.crystalrealm.ecotalequests.util.PluginLogger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Мемоизированная классификация ID блоков для блоковых квестов.
+ *
+ * <p>Набор ID типов блоков конечен, поэтому результат разбора
+ * (санитизация + поиск маркеров + извлечение цели) вычисляется один раз
+ * на ID и дальше обходится одним поиском в хеш-таблице. Правила берутся
+ * из секции {@code BlockRules} конфига; {@link #applyRules} одной записью
+ * подменяет правила вместе с новыми пустыми кешами.</p>
+ *
+ * <p>{@link #classify} отдаёт первое совпавшее правило, а
+ * {@link #classifyAs} проверяет принадлежность одному типу — для событий,
+ * которые бывают только у него (сбор урожая по F).</p>
+ */
+public final class BlockClassifier {
+
+    private static final PluginLogger LOGGER = PluginLogger.forEnclosingClass();
+
+    /** Предохранитель от неограниченного роста при нестандартных ID. */
+    private static final int MAX_CACHED_IDS = 8192;
+
+    /** Результат классификации: тип квеста и интернированная цель. */
+    public record Classification(@Nullable QuestType type, @Nonnull String target) {
+        public static final Classification NONE = new Classification(null, "");
+
+        public boolean isNone() {
+            return type == null;
+        }
+    }
+
+    private record CompiledRule(QuestType type, String[] contains, String[] strip) {}
+
+    /**
+     * Правила вместе с кешами, посчитанными по ним. Подменяется целиком,
+     * поэтому результат по старым правилам не может попасть в кеш новых.
+     */
+    private record RuleSet(List<String> stripTokens,
+                           List<CompiledRule> rules,
+                           Map<String, Classification> cache,
+                           Map<QuestType, Map<String, Classification>> typedCache) {}
+
+    private volatile RuleSet ruleSet;
+
+    public BlockClassifier(@Nonnull QuestsConfig.BlockRulesSection section) {
+        this.ruleSet = compile(section);
+        LOGGER.info("Block classification rules loaded: {} rules.", ruleSet.rules().size());
+    }
+
+    /**
+     * Устанавливает правила из конфига вместе с пустыми кешами.
+     */
+    public void applyRules(@Nonnull QuestsConfig.BlockRulesSection section) {
+        RuleSet compiled = compile(section);
+        this.ruleSet = compiled;
+        LOGGER.info("Block classification rules loaded: {} rules.", compiled.rules().size());
+    }
+
+    /**
+     * Классифицирует сырой ID типа блока.
+     *
+     * @return классификация, или {@link Classification#NONE} если блок не относится к квестам
+     */
+    @Nonnull
+    public Classification classify(@Nonnull String rawBlockId) {
+        return classify(ruleSet, rawBlockId);
+    }
+
+    /**
+     * Классифицирует ID только по правилам заданного типа, не уступая
+     * правилам других типов: ID урожая с маркером руды или дерева для
+     * {@code HARVEST_CROP} остаётся урожаем, хотя {@link #classify}
+     * отдаст его первому совпавшему правилу.
+     *
+     * @return классификация этого типа, или {@link Classification#NONE}
+     */
+    @Nonnull
+    public Classification classifyAs(@Nonnull String rawBlockId, @Nonnull QuestType type) {
+        RuleSet set = ruleSet;
+        Classification general = classify(set, rawBlockId);
+        if (general.type() == type) return general;
+
+        Map<String, Classification> typed = set.typedCache().computeIfAbsent(type, k -> new ConcurrentHashMap<>());
+        Classification cached = typed.get(rawBlockId);
+        if (cached != null) return cached;
+
+        Classification result = compute(set, rawBlockId, type);
+        if (typed.size() < MAX_CACHED_IDS) {
+            typed.putIfAbsent(rawBlockId, result);
+        }
+        return result;
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    //  INTERNAL
+    // ═════════════════════════════════════════════════════════════
+
+    private static RuleSet compile(QuestsConfig.BlockRulesSection section) {
+        List<CompiledRule> compiled = new ArrayList<>();
+        for (QuestsConfig.BlockRule rule : section.getRules()) {
+            QuestType type = QuestType.fromId(rule.getType());
+            if (type == null) {
+                LOGGER.warn("Unknown quest type in BlockRules: {}", rule.getType());
+                continue;
+            }
+            compiled.add(new CompiledRule(type,
+                    lowerAll(rule.getContains()), lowerAll(rule.getStrip())));
+        }
+        return new RuleSet(List.copyOf(section.getStripTokens()), List.copyOf(compiled),
+                new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    }
+
+    private static Classification classify(RuleSet set, String rawBlockId) {
+        Classification cached = set.cache().get(rawBlockId);
+        if (cached != null) return cached;
+
+        Classification result = compute(set, rawBlockId, null);
+        if (set.cache().size() < MAX_CACHED_IDS) {
+            set.cache().putIfAbsent(rawBlockId, result);
+        }
+        return result;
+    }
+
+    private static Classification compute(RuleSet set, String rawBlockId, @Nullable QuestType only) {
+        String sanitized = sanitize(rawBlockId, set.stripTokens());
+        for (CompiledRule rule : set.rules()) {
+            if (only != null && rule.type() != only) continue;
+            if (containsAny(sanitized, rule.contains())) {
+                return new Classification(rule.type(), extractTarget(sanitized, rule.strip()).intern());
+            }
+        }
+        return Classification.NONE;
+    }
+
+    /**
+     * Очищает ID блока от Hytale-специфичных декораций.
+     * "*Plant_Crop_Wheat_Block_Eternal_State_Definitions_StageFinal" → "plant_crop_wheat"
+     */
+    private static String sanitize(String blockId, List<String> stripTokens) {
+        String clean = blockId.startsWith("*") ? blockId.substring(1) : blockId;
+        for (String token : stripTokens) {
+            clean = clean.replace(token, "");
+        }
+        return clean.toLowerCase();
+    }
+
+    /**
+     * Извлекает цель: "copper_ore_block" → "copper", "plant_crop_wheat" → "wheat"
+     */
+    private static String extractTarget(String id, String[] strip) {
+        String target = id;
+        for (String token : strip) {
+            target = target.replace(token, "");
+        }
+        return target.trim();
+    }
+
+    private static boolean containsAny(String id, String[] markers) {
+        for (String marker : markers) {
+            if (id.contains(marker)) return true;
+        }
+        return false;
+    }
+
+    private static String[] lowerAll(List<String> values) {
+        String[] out = new String[values.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = values.get(i).toLowerCase();
+        }
+        return out;
+    }
+}
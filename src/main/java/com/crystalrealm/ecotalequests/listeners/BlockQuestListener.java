@@ -1,9 +1,10 @@
 package com.crystalrealm.ecotalequests.listeners;
 
+import com.crystalrealm.ecotalequests.config.QuestsConfig;
 import com.crystalrealm.ecotalequests.model.QuestType;
 import com.crystalrealm.ecotalequests.provider.leveling.LevelBridge;
 import com.crystalrealm.ecotalequests.tracker.QuestTracker;
-import com.crystalrealm.ecotalequests.util.MessageUtil;
+import com.crystalrealm.ecotalequests.util.PlayerSessions;
 import com.crystalrealm.ecotalequests.util.PluginLogger;
 
 import com.hypixel.hytale.component.ArchetypeChunk;
@@ -27,16 +28,28 @@ import java.util.UUID;
  *
  * <p>Реагирует на {@link BreakBlockEvent} (добыча руды/дерева через LMB)
  * и {@link UseBlockEvent.Post} (сбор урожая через F-key).</p>
+ *
+ * <p>Тип квеста и цель определяются через {@link BlockClassifier}
+ * (один поиск в кеше на событие); блоки, не относящиеся к квестам,
+ * отбрасываются до обращения к провайдерам уровня.</p>
  */
 public class BlockQuestListener {
 
     private static final PluginLogger LOGGER = PluginLogger.forEnclosingClass();
 
+    /** Типы квестов, которые может продвинуть разрушение блока. */
+    private static final int BREAK_INTEREST = QuestTracker.interestBit(QuestType.MINE_ORE)
+            | QuestTracker.interestBit(QuestType.CHOP_WOOD)
+            | QuestTracker.interestBit(QuestType.HARVEST_CROP);
+
     private final QuestTracker questTracker;
+    private final BlockClassifier classifier;
     private LevelBridge levelBridge;
 
-    public BlockQuestListener(@Nonnull QuestTracker questTracker) {
+    public BlockQuestListener(@Nonnull QuestTracker questTracker,
+                              @Nonnull QuestsConfig.BlockRulesSection blockRules) {
         this.questTracker = questTracker;
+        this.classifier = new BlockClassifier(blockRules);
     }
 
     /** Injects the level bridge after provider activation. */
@@ -44,6 +57,11 @@ public class BlockQuestListener {
         this.levelBridge = levelBridge;
     }
 
+    /** Применяет правила классификации блоков после перезагрузки конфига. */
+    public void applyBlockRules(@Nonnull QuestsConfig.BlockRulesSection blockRules) {
+        classifier.applyRules(blockRules);
+    }
+
     /**
      * Регистрирует слушатели блоковых событий.
      */
@@ -83,29 +101,27 @@ public class BlockQuestListener {
                 BlockType blockType = event.getBlockType();
                 if (blockType == null) return;
 
+                // Обновляем PlayerRef сессии для отправки сообщений
+                PlayerSessions.observe(playerUuid, playerRef);
+
+                // Нет активных блоковых квестов — событие не интересно
+                if ((questTracker.getInterestMask(playerUuid) & BREAK_INTEREST) == 0) return;
+
                 String blockId = blockType.getId();
                 if (blockId == null || blockId.isEmpty()) return;
 
-                // Кешируем PlayerRef для отправки сообщений
-                MessageUtil.cachePlayerRef(playerUuid, playerRef);
+                // Определяем тип квеста по блоку
+                BlockClassifier.Classification cls = classifier.classify(blockId);
+                if (cls.isNone() || !questTracker.isInterested(playerUuid, cls.type())) return;
 
-                // Cache ECS context for MMOSkillTree and similar providers
+                // Capture ECS context once per session (MMOSkillTree and similar providers)
                 if (levelBridge != null) {
                     Ref<EntityStore> ref = chunk.getReferenceTo(index);
-                    if (ref != null) levelBridge.onPlayerJoin(playerUuid, store, ref);
+                    if (ref != null) levelBridge.ensureSession(playerUuid, store, ref);
                 }
 
-                String sanitized = sanitizeBlockId(blockId);
                 int playerLevel = resolvePlayerLevel(playerUuid);
-
-                // Определяем тип квеста по блоку
-                if (isOre(sanitized)) {
-                    questTracker.handleAction(playerUuid, QuestType.MINE_ORE, extractOreName(sanitized), 1, playerLevel);
-                } else if (isWood(sanitized)) {
-                    questTracker.handleAction(playerUuid, QuestType.CHOP_WOOD, extractWoodName(sanitized), 1, playerLevel);
-                } else if (isCrop(sanitized)) {
-                    questTracker.handleAction(playerUuid, QuestType.HARVEST_CROP, extractCropName(sanitized), 1, playerLevel);
-                }
+                questTracker.handleAction(playerUuid, cls.type(), cls.target(), 1, playerLevel);
             } catch (Throwable e) {
                 LOGGER.debug("Error in BreakBlockQuestSystem: {}", e.getMessage());
             }
@@ -138,91 +154,31 @@ public class BlockQuestListener {
                 BlockType blockType = event.getBlockType();
                 if (blockType == null) return;
 
+                PlayerSessions.observe(playerUuid, playerRef);
+
+                // UseBlock.Post — только для урожая (F-key harvest)
+                if (!questTracker.isInterested(playerUuid, QuestType.HARVEST_CROP)) return;
+
                 String blockId = blockType.getId();
                 if (blockId == null || blockId.isEmpty()) return;
 
-                MessageUtil.cachePlayerRef(playerUuid, playerRef);
+                BlockClassifier.Classification cls = classifier.classifyAs(blockId, QuestType.HARVEST_CROP);
+                if (cls.isNone()) return;
 
-                // Cache ECS context for providers
+                // Capture ECS context once per session
                 if (levelBridge != null) {
                     Ref<EntityStore> ref = chunk.getReferenceTo(index);
-                    if (ref != null) levelBridge.onPlayerJoin(playerUuid, store, ref);
+                    if (ref != null) levelBridge.ensureSession(playerUuid, store, ref);
                 }
 
-                String sanitized = sanitizeBlockId(blockId);
                 int playerLevel = resolvePlayerLevel(playerUuid);
-
-                // UseBlock.Post — только для урожая (F-key harvest)
-                if (isCrop(sanitized)) {
-                    questTracker.handleAction(playerUuid, QuestType.HARVEST_CROP, extractCropName(sanitized), 1, playerLevel);
-                }
+                questTracker.handleAction(playerUuid, QuestType.HARVEST_CROP, cls.target(), 1, playerLevel);
             } catch (Throwable e) {
                 LOGGER.debug("Error in UseBlockQuestSystem: {}", e.getMessage());
             }
         }
     }
 
-    // ═════════════════════════════════════════════════════════════
-    //  BLOCK IDENTIFICATION
-    // ═════════════════════════════════════════════════════════════
-
-    /**
-     * Очищает ID блока от Hytale-специфичных декораций.
-     * "*Plant_Crop_Wheat_Block_Eternal_State_Definitions_StageFinal" → "plant_crop_wheat"
-     */
-    private static String sanitizeBlockId(String blockId) {
-        String clean = blockId;
-        if (clean.startsWith("*")) clean = clean.substring(1);
-        clean = clean.replace("_Block_Eternal_State_Definitions", "")
-                     .replace("_StageFinal", "")
-                     .replace("_Stage", "")
-                     .toLowerCase();
-        return clean;
-    }
-
-    private static boolean isOre(String id) {
-        return id.contains("ore") || id.contains("_vein");
-    }
-
-    private static boolean isWood(String id) {
-        return id.contains("log") || id.contains("wood") || id.contains("trunk");
-    }
-
-    private static boolean isCrop(String id) {
-        return id.contains("plant_crop_") || id.contains("crop_");
-    }
-
-    /**
-     * Извлекает имя руды: "copper_ore_block" → "copper"
-     */
-    private static String extractOreName(String id) {
-        return id.replace("_ore", "")
-                 .replace("_vein", "")
-                 .replace("_block", "")
-                 .trim();
-    }
-
-    /**
-     * Извлекает имя дерева: "oak_log_block" → "oak"
-     */
-    private static String extractWoodName(String id) {
-        return id.replace("_log", "")
-                 .replace("_wood", "")
-                 .replace("_trunk", "")
-                 .replace("_block", "")
-                 .trim();
-    }
-
-    /**
-     * Извлекает имя культуры: "plant_crop_wheat" → "wheat"
-     */
-    private static String extractCropName(String id) {
-        return id.replace("plant_crop_", "")
-                 .replace("crop_", "")
-                 .replace("_block", "")
-                 .trim();
-    }
-
     private int resolvePlayerLevel(UUID playerUuid) {
         return levelBridge != null ? levelBridge.getPlayerLevel(playerUuid) : 1;
     }
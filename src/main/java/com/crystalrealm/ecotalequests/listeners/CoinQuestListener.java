@@ -1,37 +1,62 @@
 package com.crystalrealm.ecotalequests.listeners;
 
+import com.crystalrealm.ecotalequests.model.QuestType;
 import com.crystalrealm.ecotalequests.provider.economy.EconomyBridge;
 import com.crystalrealm.ecotalequests.provider.leveling.LevelBridge;
 import com.crystalrealm.ecotalequests.tracker.QuestTracker;
-import com.crystalrealm.ecotalequests.util.MessageUtil;
+import com.crystalrealm.ecotalequests.util.PlayerSessions;
 import com.crystalrealm.ecotalequests.util.PluginLogger;
 
 import com.hypixel.hytale.server.core.HytaleServer;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Слушатель экономических операций для квестов типа EARN_COINS.
  *
- * <p>Использует polling-подход: каждые 2 секунды проверяет баланс
- * через {@link EconomyBridge}. Если баланс вырос — разница
- * засчитывается как заработанная валюта.</p>
+ * <p>Если экономика умеет сообщать об изменениях баланса
+ * ({@link EconomyBridge#subscribeBalanceChanges}), каждое изменение
+ * обрабатывается по событию — работа пропорциональна числу транзакций,
+ * а заработок и трата внутри одного интервала не теряются.</p>
+ *
+ * <p>Иначе (в том числе для Ecotale — его API событий баланса не
+ * публикует) используется polling: опрашиваются только онлайн-игроки
+ * с активным EARN_COINS квестом, пакетно через {@link EconomyBridge#getBalances}
+ * и вне общего планировщика (на виртуальных потоках, если доступны).
+ * Интервал адаптивный: 1 с, пока баланс меняется, и до 16 с у бездействующих. Если баланс вырос — разница засчитывается
+ * как заработанная валюта.</p>
  */
 public class CoinQuestListener {
 
     private static final PluginLogger LOGGER = PluginLogger.forEnclosingClass();
-    private static final long POLL_INTERVAL_SECONDS = 2;
+
+    /** Интервал опроса игрока, у которого баланс недавно менялся (и период тика). */
+    private static final long MIN_POLL_INTERVAL_MS = 1_000;
+    /** Предельный интервал опроса игрока без изменений баланса. */
+    private static final long MAX_POLL_INTERVAL_MS = 16_000;
 
     private final QuestTracker questTracker;
     private final EconomyBridge economyBridge;
     private final LevelBridge levelBridge;
     private final Map<UUID, Double> lastBalance = new ConcurrentHashMap<>();
+    private final Map<UUID, PollState> pollStates = new ConcurrentHashMap<>();
+
+    /** Опрос провайдера уходит с общего планировщика на отдельные потоки. */
+    private final ExecutorService pollExecutor = createPollExecutor();
+    private final AtomicBoolean pollInFlight = new AtomicBoolean();
     private boolean registered = false;
+    private boolean eventDriven = false;
     private ScheduledFuture<?> pollTask;
 
     public CoinQuestListener(@Nonnull QuestTracker questTracker,
@@ -43,51 +68,133 @@ public class CoinQuestListener {
     }
 
     /**
-     * Регистрирует polling-слушатель через EconomyBridge.
+     * Подписывается на события баланса; если провайдер их не поддерживает —
+     * запускает polling через EconomyBridge.
      */
     public void register() {
+        if (economyBridge.subscribeBalanceChanges(this::onBalanceChanged)) {
+            eventDriven = true;
+            registered = true;
+            LOGGER.info("CoinQuestListener registered (balance events via {}).",
+                    economyBridge.getProviderName());
+            return;
+        }
+
         if (!economyBridge.isAvailable()) {
             LOGGER.warn("Economy provider not available — coin quest tracking disabled.");
             LOGGER.info("Will check availability on first poll.");
         }
 
-        // Запускаем polling
+        // Фолбэк: адаптивный polling онлайн-игроков с EARN_COINS квестом
         pollTask = HytaleServer.SCHEDULED_EXECUTOR.scheduleAtFixedRate(
-                this::pollBalances,
-                POLL_INTERVAL_SECONDS, POLL_INTERVAL_SECONDS, TimeUnit.SECONDS
+                this::pollTick,
+                MIN_POLL_INTERVAL_MS, MIN_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS
         );
 
         registered = true;
-        LOGGER.info("CoinQuestListener registered (polling every {}s via {}).",
-                POLL_INTERVAL_SECONDS, economyBridge.getProviderName());
+        LOGGER.info("CoinQuestListener registered (adaptive polling {}-{}ms via {}).",
+                MIN_POLL_INTERVAL_MS, MAX_POLL_INTERVAL_MS, economyBridge.getProviderName());
+    }
+
+    /**
+     * Обрабатывает событие изменения баланса (любой поток). Провайдер
+     * сообщает только новый баланс; заработок — разница с предыдущим.
+     *
+     * <p>Базовый баланс обновляется синхронно, чтобы порядок транзакций
+     * сохранялся; начисление прогресса выполняется на планировщике, а не
+     * внутри транзакции экономического плагина.</p>
+     */
+    private void onBalanceChanged(@Nonnull UUID uuid, double newBalance) {
+        try {
+            Double previous = lastBalance.put(uuid, newBalance);
+            // Первое событие игрока — только запоминаем баланс
+            double earned = previous != null ? newBalance - previous : 0;
+
+            if (earned <= 0 || !questTracker.isInterested(uuid, QuestType.EARN_COINS)) return;
+
+            HytaleServer.SCHEDULED_EXECUTOR.execute(() -> {
+                try {
+                    questTracker.handleCoinsEarned(uuid, earned, levelBridge.getPlayerLevel(uuid));
+                } catch (Exception e) {
+                    LOGGER.debug("Error crediting coins for {}: {}", uuid, e.getMessage());
+                }
+            });
+        } catch (Exception e) {
+            LOGGER.debug("Error handling balance change for {}: {}", uuid, e.getMessage());
+        }
     }
 
     /**
-     * Проверяет балансы всех кешированных игроков.
+     * Тик планировщика (фолбэк без событий). Сам ничего не опрашивает:
+     * отбирает онлайн-игроков с активным EARN_COINS квестом, у которых
+     * подошёл срок, и отдаёт пакет в {@code pollExecutor}. Пока предыдущий
+     * пакет не завершён, новый не запускается.
      */
-    private void pollBalances() {
-        if (!economyBridge.isAvailable()) return;
+    private void pollTick() {
+        if (!economyBridge.isAvailable() || pollInFlight.get()) return;
+
+        long now = System.currentTimeMillis();
+        List<UUID> due = new ArrayList<>();
+        for (UUID uuid : PlayerSessions.onlinePlayers()) {
+            // Нет активного EARN_COINS квеста — не опрашиваем экономику.
+            // Базовый баланс сбрасывается, чтобы после принятия квеста
+            // не засчитать заработанное до него.
+            if (!questTracker.isInterested(uuid, QuestType.EARN_COINS)) {
+                lastBalance.remove(uuid);
+                pollStates.remove(uuid);
+                continue;
+            }
+            PollState state = pollStates.computeIfAbsent(uuid, k -> new PollState());
+            if (now >= state.nextPollAt) due.add(uuid);
+        }
+        if (due.isEmpty() || !pollInFlight.compareAndSet(false, true)) return;
 
-        for (UUID uuid : MessageUtil.getCachedPlayerUuids()) {
+        try {
+            pollExecutor.execute(() -> {
+                try {
+                    pollBatch(due);
+                } finally {
+                    pollInFlight.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pollInFlight.set(false);
+        }
+    }
+
+    /**
+     * Опрашивает пакет игроков одним вызовом {@link EconomyBridge#getBalances}
+     * и подстраивает интервал: при изменении баланса — минимальный,
+     * без изменений — удваивается до максимального.
+     */
+    private void pollBatch(@Nonnull List<UUID> batch) {
+        Map<UUID, Double> balances = economyBridge.getBalances(batch);
+        long now = System.currentTimeMillis();
+
+        for (UUID uuid : batch) {
             try {
-                double currentBalance = economyBridge.getBalance(uuid);
-                if (currentBalance < 0) continue; // ошибка получения баланса
+                PollState state = pollStates.get(uuid);
+                if (state == null) continue; // игрок вышел или потерял интерес
+
+                Double current = balances.get(uuid);
+                if (current == null || current < 0) { // ошибка получения баланса
+                    state.backOff(now);
+                    continue;
+                }
 
-                Double previousBalance = lastBalance.get(uuid);
-                if (previousBalance == null) {
-                    // Первый раз видим игрока — запоминаем баланс
-                    lastBalance.put(uuid, currentBalance);
+                Double previousBalance = lastBalance.put(uuid, current);
+                if (previousBalance == null || current.doubleValue() == previousBalance.doubleValue()) {
+                    // Первый раз видим игрока или баланс не менялся
+                    state.backOff(now);
                     continue;
                 }
 
-                if (currentBalance > previousBalance) {
-                    double earned = currentBalance - previousBalance;
+                state.hurry(now);
+                if (current > previousBalance) {
+                    double earned = current - previousBalance;
                     int playerLevel = levelBridge.getPlayerLevel(uuid);
                     questTracker.handleCoinsEarned(uuid, earned, playerLevel);
                 }
-
-                // Всегда обновляем баланс (может уменьшиться при покупках)
-                lastBalance.put(uuid, currentBalance);
             } catch (Exception e) {
                 LOGGER.debug("Error polling balance for {}: {}", uuid, e.getMessage());
             }
@@ -96,6 +203,17 @@ public class CoinQuestListener {
 
     public boolean isRegistered() { return registered; }
 
+    /** Получает ли слушатель изменения баланса по событиям (а не polling). */
+    public boolean isEventDriven() { return eventDriven; }
+
+    /**
+     * Забывает базовый баланс и состояние опроса вышедшего игрока.
+     */
+    public void onPlayerLeave(@Nonnull UUID playerUuid) {
+        pollStates.remove(playerUuid);
+        lastBalance.remove(playerUuid);
+    }
+
     /**
      * Останавливает polling.
      */
@@ -103,6 +221,44 @@ public class CoinQuestListener {
         if (pollTask != null) {
             pollTask.cancel(false);
         }
+        pollExecutor.shutdownNow();
         lastBalance.clear();
+        pollStates.clear();
+    }
+
+    /**
+     * Виртуальные потоки на Java 21+ (ищутся рефлексивно — плагин
+     * поддерживает Java 17), иначе один daemon-поток: пакеты опроса
+     * и так не перекрываются ({@code pollInFlight}).
+     */
+    private static ExecutorService createPollExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "EcoTaleQuests-CoinPoll");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /** Расписание опроса одного игрока. */
+    private static final class PollState {
+        volatile long intervalMs = MIN_POLL_INTERVAL_MS;
+        volatile long nextPollAt;
+
+        /** Баланс изменился — игрок торгует, опрашиваем чаще. */
+        void hurry(long now) {
+            intervalMs = MIN_POLL_INTERVAL_MS;
+            nextPollAt = now + intervalMs;
+        }
+
+        /** Баланс не изменился — увеличиваем интервал. */
+        void backOff(long now) {
+            intervalMs = Math.min(intervalMs * 2, MAX_POLL_INTERVAL_MS);
+            nextPollAt = now + intervalMs;
+        }
     }
 }
@@ -3,7 +3,7 @@ package com.crystalrealm.ecotalequests.listeners;
 import com.crystalrealm.ecotalequests.model.QuestType;
 import com.crystalrealm.ecotalequests.provider.leveling.LevelBridge;
 import com.crystalrealm.ecotalequests.tracker.QuestTracker;
-import com.crystalrealm.ecotalequests.util.MessageUtil;
+import com.crystalrealm.ecotalequests.util.PlayerSessions;
 import com.crystalrealm.ecotalequests.util.PluginLogger;
 
 import com.hypixel.hytale.component.CommandBuffer;
@@ -21,21 +21,44 @@ import com.hypixel.hytale.server.npc.entities.NPCEntity;
 import com.hypixel.hytale.server.npc.role.Role;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.util.Optional;
 import java.util.UUID;
 
 public class MobDeathQuestSystem extends DeathSystems.OnDeathSystem {
 
     private static final PluginLogger LOGGER = PluginLogger.forEnclosingClass();
 
+    /** Sampled INFO audit trail for kills — full detail only at DEBUG. */
+    private static final PluginLogger.Sampler KILL_AUDIT = LOGGER.sampler(10_000);
+
     private final QuestTracker questTracker;
     private final ComponentType<EntityStore, NPCEntity> npcType;
     private final ComponentType<EntityStore, Player> playerType;
     private LevelBridge levelBridge;
 
-    // Cached reflection methods (resolved once)
-    private volatile Method getComponentMethod;
-    private volatile boolean methodResolved = false;
+    // ── Compiled accessors (resolved once per accessor class, absent results cached) ──
+
+    private static final MethodType GET_COMPONENT_TYPE =
+            MethodType.methodType(Object.class, Object.class, Ref.class, ComponentType.class);
+    private static final MethodType NO_ARG_GETTER_TYPE =
+            MethodType.methodType(Object.class, Object.class);
+
+    /** {@code getComponent(Ref, ComponentType)} per accessor class (CommandBuffer / Store). */
+    private static final ClassValue<Optional<MethodHandle>> GET_COMPONENT = new ClassValue<>() {
+        @Override
+        protected Optional<MethodHandle> computeValue(Class<?> type) {
+            return Optional.ofNullable(findGetComponentHandle(type));
+        }
+    };
+
+    private static final ClassValue<Optional<MethodHandle>> GET_DAMAGE_DATA = noArgGetter("getDamageData");
+    private static final ClassValue<Optional<MethodHandle>> GET_MOST_DAMAGING = noArgGetter("getMostDamagingAttacker");
+    private static final ClassValue<Optional<MethodHandle>> GET_ANY_ATTACKER = noArgGetter("getAnyAttacker");
 
     public MobDeathQuestSystem(@Nonnull QuestTracker questTracker) {
         this.questTracker = questTracker;
@@ -65,66 +88,50 @@ public class MobDeathQuestSystem extends DeathSystems.OnDeathSystem {
     }
 
     // ==================================================================
-    //  Reflection-based component access
+    //  Compiled component access
     // ==================================================================
 
     @SuppressWarnings("unchecked")
     private <C> C getComp(Object accessor, Ref<EntityStore> ref, ComponentType<EntityStore, C> type) {
+        MethodHandle handle = GET_COMPONENT.get(accessor.getClass()).orElse(null);
+        if (handle == null) return null;
         try {
-            // Try to find getComponent method if not yet resolved
-            if (!methodResolved || getComponentMethod == null) {
-                getComponentMethod = findGetComponentMethod(accessor);
-                methodResolved = true;
-                if (getComponentMethod != null) {
-                    LOGGER.info("Resolved getComponent method: {} on {}",
-                            getComponentMethod.toGenericString(), accessor.getClass().getName());
-                }
-            }
-            if (getComponentMethod != null) {
-                return (C) getComponentMethod.invoke(accessor, ref, type);
-            }
-
-            // Brute-force: try all methods named getComponent
-            for (Method m : accessor.getClass().getMethods()) {
-                if (m.getName().equals("getComponent") && m.getParameterCount() == 2) {
-                    try {
-                        m.setAccessible(true);
-                        Object result = m.invoke(accessor, ref, type);
-                        // Cache this method for future calls
-                        getComponentMethod = m;
-                        LOGGER.info("Found getComponent via brute force: {}", m.toGenericString());
-                        return (C) result;
-                    } catch (Exception ignored) {}
-                }
-            }
-        } catch (Exception e) {
-            LOGGER.warn("getComp reflection failed: {}", e.getMessage());
+            return (C) (Object) handle.invokeExact(accessor, ref, (ComponentType) type);
+        } catch (Throwable e) {
+            LOGGER.warn("getComp failed on {}: {}", accessor.getClass().getName(), e.getMessage());
+            return null;
         }
-        return null;
     }
 
-    private Method findGetComponentMethod(Object accessor) {
+    @Nullable
+    private static MethodHandle findGetComponentHandle(Class<?> accessorClass) {
+        Method found = null;
+
         // Strategy 1: exact match Ref.class, ComponentType.class
         try {
-            Method m = accessor.getClass().getMethod("getComponent", Ref.class, ComponentType.class);
-            m.setAccessible(true);
-            return m;
+            found = accessorClass.getMethod("getComponent", Ref.class, ComponentType.class);
         } catch (NoSuchMethodException ignored) {}
 
-        // Strategy 2: scan all getComponent methods with 2 params
-        for (Method m : accessor.getClass().getMethods()) {
-            if (m.getName().equals("getComponent") && m.getParameterCount() == 2) {
-                Class<?>[] params = m.getParameterTypes();
-                if (params[0].isAssignableFrom(Ref.class)) {
-                    m.setAccessible(true);
-                    return m;
+        // Strategy 2: scan all getComponent methods with 2 params, preferring a Ref-compatible first param
+        if (found == null) {
+            for (Method m : accessorClass.getMethods()) {
+                if (m.getName().equals("getComponent") && m.getParameterCount() == 2
+                        && m.getParameterTypes()[0].isAssignableFrom(Ref.class)) {
+                    found = m;
+                    break;
                 }
             }
         }
 
-        // Log all available methods for diagnostics
-        LOGGER.warn("Could not find getComponent on {}. Available methods:", accessor.getClass().getName());
-        for (Method m : accessor.getClass().getMethods()) {
+        MethodHandle handle = found != null ? toHandle(found, GET_COMPONENT_TYPE) : null;
+        if (handle != null) {
+            LOGGER.info("Resolved getComponent method: {} on {}", found.toGenericString(), accessorClass.getName());
+            return handle;
+        }
+
+        // Log all available methods for diagnostics (once per accessor class)
+        LOGGER.warn("Could not find getComponent on {}. Available methods:", accessorClass.getName());
+        for (Method m : accessorClass.getMethods()) {
             if (m.getDeclaringClass() == Object.class) continue;
             LOGGER.warn("  {} {}({}params) -> {}", m.getName(), m.getParameterCount(),
                     m.getParameterTypes().length > 0 ? m.getParameterTypes()[0].getSimpleName() + "..." : "",
@@ -133,6 +140,38 @@ public class MobDeathQuestSystem extends DeathSystems.OnDeathSystem {
         return null;
     }
 
+    /** Caches a public no-arg getter per receiver class, adapted to {@code (Object)Object}. */
+    private static ClassValue<Optional<MethodHandle>> noArgGetter(String name) {
+        return new ClassValue<>() {
+            @Override
+            protected Optional<MethodHandle> computeValue(Class<?> type) {
+                try {
+                    return Optional.ofNullable(toHandle(type.getMethod(name), NO_ARG_GETTER_TYPE));
+                } catch (NoSuchMethodException e) {
+                    // Not available in this Hytale version — remembered, never looked up again
+                    return Optional.empty();
+                }
+            }
+        };
+    }
+
+    @Nullable
+    private static MethodHandle toHandle(Method method, MethodType erasedType) {
+        try {
+            method.trySetAccessible();
+            return MethodHandles.lookup().unreflect(method).asType(erasedType);
+        } catch (IllegalAccessException | RuntimeException e) {
+            LOGGER.warn("Cannot bind {}: {}", method.toGenericString(), e.getMessage());
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Object invokeGetter(ClassValue<Optional<MethodHandle>> getter, Object target) throws Throwable {
+        MethodHandle handle = getter.get(target.getClass()).orElse(null);
+        return handle != null ? (Object) handle.invokeExact(target) : null;
+    }
+
     // ==================================================================
     //  Main logic
     // ==================================================================
@@ -150,19 +189,20 @@ public class MobDeathQuestSystem extends DeathSystems.OnDeathSystem {
             npc = getComp(store, ref, npcType);
         }
         if (npc == null) {
-            LOGGER.info("processNpcDeath: NPCEntity is null for ref={}", ref);
+            LOGGER.debug("processNpcDeath: NPCEntity is null for ref={}", ref);
             return;
         }
 
         // 2. Get NPC type identifier
         String npcTypeId = safeNpcTypeId(npc);
-        String roleName = safeRoleName(npc);
-        LOGGER.info("NPC death detected: npcTypeId={}, role={}", npcTypeId, roleName);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.event("npc_death", "npc", npcTypeId, "role", safeRoleName(npc));
+        }
 
         // 3. Resolve attacker
         Ref<EntityStore> attackerRef = resolveAttackerRef(npc, death);
         if (attackerRef == null || !attackerRef.isValid()) {
-            LOGGER.info("No valid attacker for NPC death: npcTypeId={}", npcTypeId);
+            LOGGER.debug("No valid attacker for NPC death: npcTypeId={}", npcTypeId);
             return;
         }
 
@@ -172,7 +212,7 @@ public class MobDeathQuestSystem extends DeathSystems.OnDeathSystem {
             killer = getComp(store, attackerRef, playerType);
         }
         if (killer == null) {
-            LOGGER.info("Attacker is not a player: npcTypeId={}", npcTypeId);
+            LOGGER.debug("Attacker is not a player: npcTypeId={}", npcTypeId);
             return;
         }
 
@@ -184,25 +224,31 @@ public class MobDeathQuestSystem extends DeathSystems.OnDeathSystem {
         UUID playerUuid;
         if (playerRef != null) {
             playerUuid = playerRef.getUuid();
-            try { MessageUtil.cachePlayerRef(playerUuid, playerRef); } catch (Exception ignored) {}
+            PlayerSessions.observe(playerUuid, playerRef);
         } else {
             playerUuid = killer.getUuid();
         }
 
         if (playerUuid == null) {
-            LOGGER.info("Could not resolve player UUID for kill: npcTypeId={}", npcTypeId);
+            LOGGER.debug("Could not resolve player UUID for kill: npcTypeId={}", npcTypeId);
             return;
         }
 
-        // Cache ECS context for MMOSkillTree and similar providers
+        // No active kill quest — skip level lookup and tracking
+        if (!questTracker.isInterested(playerUuid, QuestType.KILL_MOB)) return;
+
+        // Capture ECS context once per session (MMOSkillTree and similar providers)
         if (levelBridge != null) {
-            levelBridge.onPlayerJoin(playerUuid, store, attackerRef);
+            levelBridge.ensureSession(playerUuid, store, attackerRef);
         }
 
         // 6. Track the kill
         int playerLevel = resolvePlayerLevel(playerUuid);
-        LOGGER.info("Mob kill tracked: player={}, npcTypeId={}, role={}, level={}",
-                playerUuid, npcTypeId, roleName, playerLevel);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.event("mob_kill", "player", playerUuid, "npc", npcTypeId, "level", playerLevel);
+        } else if (KILL_AUDIT.tryAcquire()) {
+            KILL_AUDIT.emit("mob_kill", "player", playerUuid, "npc", npcTypeId, "level", playerLevel);
+        }
         questTracker.handleAction(playerUuid, QuestType.KILL_MOB, npcTypeId, 1, playerLevel);
     }
 
@@ -220,40 +266,35 @@ public class MobDeathQuestSystem extends DeathSystems.OnDeathSystem {
                     if (source instanceof Damage.EntitySource entitySource) {
                         Ref<EntityStore> ref = entitySource.getRef();
                         if (ref != null && ref.isValid()) {
-                            LOGGER.info("Attacker resolved from death info");
+                            LOGGER.debug("Attacker resolved from death info");
                             return ref;
                         }
                     }
                 }
             } catch (Exception e) {
-                LOGGER.info("DeathInfo resolution failed: {}", e.getMessage());
+                LOGGER.debug("DeathInfo resolution failed: {}", e.getMessage());
             }
         }
 
-        // Strategy 2: NPCEntity damage data (via reflection — method may not exist in all API versions)
+        // Strategy 2: NPCEntity damage data (compiled handles — methods may not exist in all API versions)
         try {
-            java.lang.reflect.Method getDmg = npc.getClass().getMethod("getDamageData");
-            Object damageData = getDmg.invoke(npc);
+            Object damageData = invokeGetter(GET_DAMAGE_DATA, npc);
             if (damageData != null) {
-                java.lang.reflect.Method getMost = damageData.getClass().getMethod("getMostDamagingAttacker");
                 @SuppressWarnings("unchecked")
-                Ref<EntityStore> ref = (Ref<EntityStore>) getMost.invoke(damageData);
+                Ref<EntityStore> ref = (Ref<EntityStore>) invokeGetter(GET_MOST_DAMAGING, damageData);
                 if (ref != null && ref.isValid()) {
-                    LOGGER.info("Attacker resolved from damage data (most damaging)");
+                    LOGGER.debug("Attacker resolved from damage data (most damaging)");
                     return ref;
                 }
-                java.lang.reflect.Method getAny = damageData.getClass().getMethod("getAnyAttacker");
                 @SuppressWarnings("unchecked")
-                Ref<EntityStore> any = (Ref<EntityStore>) getAny.invoke(damageData);
+                Ref<EntityStore> any = (Ref<EntityStore>) invokeGetter(GET_ANY_ATTACKER, damageData);
                 if (any != null && any.isValid()) {
-                    LOGGER.info("Attacker resolved from damage data (any)");
+                    LOGGER.debug("Attacker resolved from damage data (any)");
                     return any;
                 }
             }
-        } catch (NoSuchMethodException ignored) {
-            // getDamageData() not available in this Hytale version — skip silently
-        } catch (Exception e) {
-            LOGGER.info("DamageData resolution failed: {}", e.getMessage());
+        } catch (Throwable e) {
+            LOGGER.debug("DamageData resolution failed: {}", e.getMessage());
         }
 
         return null;
@@ -1,18 +1,25 @@
 package com.crystalrealm.ecotalequests.listeners;
 
+import com.crystalrealm.ecotalequests.model.QuestType;
+import com.crystalrealm.ecotalequests.provider.leveling.LevelBridge;
 import com.crystalrealm.ecotalequests.tracker.QuestTracker;
-import com.crystalrealm.ecotalequests.util.MessageUtil;
+import com.crystalrealm.ecotalequests.util.PlayerSessions;
 import com.crystalrealm.ecotalequests.util.PluginLogger;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
  * Listener for XP tracking via leveling API event subscription.
  *
- * <p>Tracks GAIN_XP quests via ExperienceGainedEvent.
+ * <p>Tracks GAIN_XP quests via ExperienceGainedEvent. Level changes arrive
+ * through the API's LevelUpEvent and keep the {@link LevelBridge} cache current.
  * <b>KILL_MOB quests are handled separately by {@link MobDeathQuestSystem}</b>,
  * which uses the native ECS DeathSystems.OnDeathSystem
  * with direct access to NPCEntity.getNPCTypeId().</p>
@@ -26,12 +33,18 @@ public class MobKillQuestListener {
     private static final PluginLogger LOGGER = PluginLogger.forEnclosingClass();
 
     private final QuestTracker questTracker;
+    private LevelBridge levelBridge;
     private boolean registered = false;
 
     public MobKillQuestListener(@Nonnull QuestTracker questTracker) {
         this.questTracker = questTracker;
     }
 
+    /** Injects the level bridge so level-up events can refresh its level cache. */
+    public void setLevelBridge(@Nonnull LevelBridge levelBridge) {
+        this.levelBridge = levelBridge;
+    }
+
     /**
      * Registers the XP event listener using a raw API object (via reflection).
      *
@@ -76,6 +89,7 @@ public class MobKillQuestListener {
 
             registerMethod.invoke(rawRpgApi, listener);
             registered = true;
+            registerLevelUpListener(rawRpgApi);
             LOGGER.info("MobKillQuestListener registered via Leveling API (XP tracking only).");
             LOGGER.info("KILL_MOB tracking delegated to MobDeathQuestSystem (native ECS).");
         } catch (Exception e) {
@@ -84,51 +98,173 @@ public class MobKillQuestListener {
     }
 
     /**
-     * Handles an XP gain event via reflection.
+     * Subscribes to level-up events so the level cache follows the leveling
+     * plugin without polling. Optional: without it the cache refreshes by TTL.
+     */
+    private void registerLevelUpListener(@Nonnull Object rawRpgApi) {
+        Method registerMethod = null;
+        for (Method m : rawRpgApi.getClass().getMethods()) {
+            if (m.getName().equals("registerLevelUpListener") && m.getParameterCount() == 1) {
+                registerMethod = m;
+                break;
+            }
+        }
+        if (registerMethod == null) {
+            LOGGER.info("registerLevelUpListener not found in leveling API — level cache refreshes by TTL.");
+            return;
+        }
+
+        try {
+            Class<?> listenerType = registerMethod.getParameterTypes()[0];
+            Object listener = java.lang.reflect.Proxy.newProxyInstance(
+                    rawRpgApi.getClass().getClassLoader(),
+                    new Class<?>[]{listenerType},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("onLevelUp") && args != null && args.length == 1) {
+                            handleLevelUp(args[0]);
+                        }
+                        return null;
+                    }
+            );
+            registerMethod.invoke(rawRpgApi, listener);
+        } catch (Exception e) {
+            LOGGER.warn("Failed to register level-up listener: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Records the new level from a level-up event in the bridge cache.
+     */
+    private void handleLevelUp(@Nullable Object event) {
+        if (event == null || levelBridge == null) return;
+        try {
+            LevelUpAccessors accessors = LEVEL_UP_ACCESSORS.get(event.getClass());
+            if (accessors.getPlayer() == null || accessors.getNewLevel() == null) return;
+
+            Object playerRef = (Object) accessors.getPlayer().invokeExact(event);
+            if (playerRef == null) return;
+            MethodHandle getUuid = GET_UUID.get(playerRef.getClass()).orElse(null);
+            if (getUuid == null) return;
+            UUID playerUuid = (UUID) (Object) getUuid.invokeExact(playerRef);
+            if (playerUuid == null) return;
+
+            Object newLevel = (Object) accessors.getNewLevel().invokeExact(event);
+            if (newLevel instanceof Number n) levelBridge.recordLevel(playerUuid, n.intValue());
+        } catch (Throwable e) {
+            LOGGER.debug("Level-up event handling failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Handles an XP gain event through accessors compiled once per event class.
      */
     private void handleXPEvent(@Nonnull Object event) {
         try {
+            XpEventAccessors accessors = XP_EVENT_ACCESSORS.get(event.getClass());
+            if (accessors.getPlayer() == null) return;
+
             // Get player ref
-            Method getPlayer = event.getClass().getMethod("getPlayer");
-            Object playerRef = getPlayer.invoke(event);
+            Object playerRef = (Object) accessors.getPlayer().invokeExact(event);
             if (playerRef == null) return;
 
-            Method getUuid = playerRef.getClass().getMethod("getUuid");
-            UUID playerUuid = (UUID) getUuid.invoke(playerRef);
+            MethodHandle getUuid = GET_UUID.get(playerRef.getClass()).orElse(null);
+            if (getUuid == null) return;
+            UUID playerUuid = (UUID) (Object) getUuid.invokeExact(playerRef);
             if (playerUuid == null) return;
 
-            int playerLevel = resolvePlayerLevel(event);
-
-            // Cache PlayerRef for message sending
+            // Keep the session PlayerRef current for message sending
             if (playerRef instanceof com.hypixel.hytale.server.core.universe.PlayerRef ref) {
-                MessageUtil.cachePlayerRef(playerUuid, ref);
+                PlayerSessions.observe(playerUuid, ref);
             }
 
+            // No active XP quest — skip XP extraction
+            if (!questTracker.isInterested(playerUuid, QuestType.GAIN_XP)) return;
+
+            // Cached level, kept current by level-up events
+            int playerLevel = levelBridge != null ? levelBridge.getPlayerLevel(playerUuid) : 1;
+
             // Track XP gain
-            Method getXp = event.getClass().getMethod("getXpAmount");
-            Object xpResult = getXp.invoke(event);
+            if (accessors.getXpAmount() == null) return;
+            Object xpResult = (Object) accessors.getXpAmount().invokeExact(event);
             if (xpResult instanceof Number n) {
                 double xpAmount = n.doubleValue();
                 if (xpAmount > 0) {
                     questTracker.handleXPGained(playerUuid, xpAmount, playerLevel);
                 }
             }
-        } catch (Exception e) {
+        } catch (Throwable e) {
             LOGGER.debug("XP event handling failed: {}", e.getMessage());
         }
     }
 
     public boolean isRegistered() { return registered; }
 
+    // ==================================================================
+    //  Compiled accessors
+    // ==================================================================
+
     /**
-     * Resolves the player level from the event.
+     * Accessors of one XP event class. A {@code null} handle means the
+     * method is absent in the installed leveling plugin; the event is then
+     * handled with whatever is available.
      */
-    private int resolvePlayerLevel(@Nonnull Object event) {
+    private record XpEventAccessors(@Nullable MethodHandle getPlayer,
+                                    @Nullable MethodHandle getXpAmount) {}
+
+    /** Accessors of one level-up event class; {@code null} when absent. */
+    private record LevelUpAccessors(@Nullable MethodHandle getPlayer,
+                                    @Nullable MethodHandle getNewLevel) {}
+
+    private static final MethodType NO_ARG_GETTER_TYPE =
+            MethodType.methodType(Object.class, Object.class);
+
+    /** Event accessors, bound on the first event of each class. */
+    private static final ClassValue<XpEventAccessors> XP_EVENT_ACCESSORS = new ClassValue<>() {
+        @Override
+        protected XpEventAccessors computeValue(Class<?> type) {
+            XpEventAccessors accessors = new XpEventAccessors(
+                    bindGetter(type, "getPlayer"),
+                    bindGetter(type, "getXpAmount"));
+            if (accessors.getPlayer() == null || accessors.getXpAmount() == null) {
+                LOGGER.warn("XP event {} lacks getPlayer/getXpAmount — GAIN_XP tracking degraded.", type.getName());
+            }
+            return accessors;
+        }
+    };
+
+    /** Level-up event accessors, bound on the first event of each class. */
+    private static final ClassValue<LevelUpAccessors> LEVEL_UP_ACCESSORS = new ClassValue<>() {
+        @Override
+        protected LevelUpAccessors computeValue(Class<?> type) {
+            LevelUpAccessors accessors = new LevelUpAccessors(
+                    bindGetter(type, "getPlayer"),
+                    bindGetter(type, "getNewLevel"));
+            if (accessors.getPlayer() == null || accessors.getNewLevel() == null) {
+                LOGGER.warn("Level-up event {} lacks getPlayer/getNewLevel — level cache refreshes by TTL.", type.getName());
+            }
+            return accessors;
+        }
+    };
+
+    /** {@code getUuid()} per player ref class. */
+    private static final ClassValue<Optional<MethodHandle>> GET_UUID = new ClassValue<>() {
+        @Override
+        protected Optional<MethodHandle> computeValue(Class<?> type) {
+            return Optional.ofNullable(bindGetter(type, "getUuid"));
+        }
+    };
+
+    @Nullable
+    private static MethodHandle bindGetter(@Nonnull Class<?> type, @Nonnull String name) {
         try {
-            Method m = event.getClass().getMethod("getPlayerLevel");
-            Object result = m.invoke(event);
-            if (result instanceof Number n) return n.intValue();
-        } catch (Exception ignored) {}
-        return 1;
+            Method method = type.getMethod(name);
+            method.trySetAccessible();
+            return MethodHandles.lookup().unreflect(method).asType(NO_ARG_GETTER_TYPE);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (IllegalAccessException | RuntimeException e) {
+            LOGGER.warn("Cannot bind {}.{}: {}", type.getName(), name, e.getMessage());
+            return null;
+        }
     }
 }
@@ -0,0 +1,150 @@
+package com.crystalrealm.ecotalequests.listeners;
+
+import com.crystalrealm.ecotalequests.provider.leveling.LevelBridge;
+import com.crystalrealm.ecotalequests.reward.QuestRewardCalculator;
+import com.crystalrealm.ecotalequests.service.NotificationScheduler;
+import com.crystalrealm.ecotalequests.service.QuestAvailabilityManager;
+import com.crystalrealm.ecotalequests.service.TimerService;
+import com.crystalrealm.ecotalequests.util.PermissionHelper;
+import com.crystalrealm.ecotalequests.util.PlayerSessions;
+import com.crystalrealm.ecotalequests.util.PluginLogger;
+
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.event.EventRegistry;
+import com.hypixel.hytale.server.core.event.events.player.PlayerConnectEvent;
+import com.hypixel.hytale.server.core.event.events.player.PlayerDisconnectEvent;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+
+import javax.annotation.Nonnull;
+import java.util.UUID;
+
+/**
+ * Слушатель подключения/отключения игроков.
+ *
+ * <p>Передаёт события в {@link TimerService}, чтобы работал grace-период
+ * при релоге: таймеры квестов не проваливаются, пока игрок переподключается.</p>
+ *
+ * <p>Также управляет сессией ECS-контекста в {@link LevelBridge}: контекст
+ * захватывается при подключении (если сущность уже создана) и удаляется
+ * при отключении.</p>
+ *
+ * <p>Открывает и закрывает сессию игрока в {@link PlayerSessions} —
+ * по ней работают доставка сообщений и опрос баланса онлайн-игроков,
+ * а VIP-тир игрока определяется при входе и хранится в ней же.
+ * При выходе сбрасывает состояние опроса {@link CoinQuestListener} и
+ * отложенные уведомления в {@link NotificationScheduler}, кеш
+ * решений {@link PermissionHelper} и места в очередях ожидания
+ * {@link QuestAvailabilityManager}.</p>
+ */
+public class PlayerConnectionListener {
+
+    private static final PluginLogger LOGGER = PluginLogger.forEnclosingClass();
+
+    private final TimerService timerService;
+    private volatile LevelBridge levelBridge;
+    private volatile CoinQuestListener coinQuestListener;
+    private volatile NotificationScheduler notificationScheduler;
+    private volatile QuestRewardCalculator rewardCalculator;
+    private volatile QuestAvailabilityManager availabilityManager;
+
+    public PlayerConnectionListener(@Nonnull TimerService timerService) {
+        this.timerService = timerService;
+    }
+
+    /** Injects the level bridge after provider activation. */
+    public void setLevelBridge(@Nonnull LevelBridge levelBridge) {
+        this.levelBridge = levelBridge;
+    }
+
+    /** Injects the coin listener so it forgets poll state of leaving players. */
+    public void setCoinQuestListener(@Nonnull CoinQuestListener coinQuestListener) {
+        this.coinQuestListener = coinQuestListener;
+    }
+
+    /** Injects the notification scheduler so pending popups are dropped on disconnect. */
+    public void setNotificationScheduler(@Nonnull NotificationScheduler notificationScheduler) {
+        this.notificationScheduler = notificationScheduler;
+    }
+
+    /** Injects the reward calculator so the VIP tier is resolved once per session. */
+    public void setRewardCalculator(@Nonnull QuestRewardCalculator rewardCalculator) {
+        this.rewardCalculator = rewardCalculator;
+    }
+
+    /** Injects the availability manager so leaving players drop out of quest waitlists. */
+    public void setAvailabilityManager(@Nonnull QuestAvailabilityManager availabilityManager) {
+        this.availabilityManager = availabilityManager;
+    }
+
+    /**
+     * Регистрирует обработчики PlayerConnectEvent / PlayerDisconnectEvent.
+     */
+    public void register(@Nonnull EventRegistry eventRegistry) {
+        eventRegistry.register(PlayerConnectEvent.class, this::onConnect);
+        eventRegistry.register(PlayerDisconnectEvent.class, this::onDisconnect);
+        LOGGER.info("PlayerConnectionListener registered (Connect + Disconnect).");
+    }
+
+    private void onConnect(@Nonnull PlayerConnectEvent event) {
+        try {
+            PlayerRef playerRef = event.getPlayerRef();
+            UUID playerUuid = resolveUuid(playerRef);
+            if (playerUuid == null) return;
+            PlayerSessions.open(playerUuid, playerRef);
+            timerService.onPlayerConnect(playerUuid);
+
+            QuestRewardCalculator rewards = rewardCalculator;
+            if (rewards != null) rewards.refreshVipTier(playerUuid);
+
+            // Entity may not be spawned yet — listeners capture it on first sight otherwise
+            LevelBridge bridge = levelBridge;
+            Ref<EntityStore> ref = playerRef.getReference();
+            if (bridge != null && ref != null && ref.isValid() && ref.getStore() != null) {
+                bridge.ensureSession(playerUuid, ref.getStore(), ref);
+            }
+        } catch (Throwable e) {
+            LOGGER.debug("Error in PlayerConnectEvent handler: {}", e.getMessage());
+        }
+    }
+
+    private void onDisconnect(@Nonnull PlayerDisconnectEvent event) {
+        UUID playerUuid;
+        try {
+            playerUuid = resolveUuid(event.getPlayerRef());
+        } catch (Throwable e) {
+            LOGGER.debug("Error in PlayerDisconnectEvent handler: {}", e.getMessage());
+            return;
+        }
+        if (playerUuid == null) return;
+
+        // Each step is guarded on its own so one failure does not leak the rest of the player's state
+        cleanup("sessions", () -> PlayerSessions.close(playerUuid));
+        cleanup("permissions", () -> PermissionHelper.getInstance().invalidate(playerUuid));
+        cleanup("timers", () -> timerService.onPlayerDisconnect(playerUuid));
+
+        LevelBridge bridge = levelBridge;
+        if (bridge != null) cleanup("level bridge", () -> bridge.onPlayerLeave(playerUuid));
+
+        CoinQuestListener coins = coinQuestListener;
+        if (coins != null) cleanup("coin polling", () -> coins.onPlayerLeave(playerUuid));
+
+        NotificationScheduler notifications = notificationScheduler;
+        if (notifications != null) cleanup("notifications", () -> notifications.clear(playerUuid));
+
+        QuestAvailabilityManager availability = availabilityManager;
+        if (availability != null) cleanup("waitlists", () -> availability.onPlayerLeave(playerUuid));
+    }
+
+    private static void cleanup(@Nonnull String step, @Nonnull Runnable action) {
+        try {
+            action.run();
+        } catch (Throwable e) {
+            LOGGER.debug("Error in PlayerDisconnectEvent handler ({}): {}", step, e.getMessage());
+        }
+    }
+
+    private static UUID resolveUuid(PlayerRef playerRef) {
+        return playerRef != null ? playerRef.getUuid() : null;
+    }
+}
@@ -127,7 +127,7 @@ public class QuestBoardInteractionListener {
                 Ref<EntityStore> ref = chunk.getReferenceTo(index);
                 if (ref == null || !ref.isValid()) return;
 
-                LOGGER.info("Player {} interacted with quest board at block {}", playerUuid, blockId);
+                LOGGER.debug("Player {} interacted with quest board at block {}", playerUuid, blockId);
 
                 // Open the quest GUI directly — same as /quests gui
                 PlayerQuestsGui page = new PlayerQuestsGui(plugin, playerRef, playerUuid);
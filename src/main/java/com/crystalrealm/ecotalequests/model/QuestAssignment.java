@@ -14,7 +14,7 @@ public class QuestAssignment {
     private final UUID questId;
     private final UUID playerUuid;
     private final long assignedAt;
-    private final long expiresAt;
+    private volatile long expiresAt;
     private boolean released;
 
     public QuestAssignment(@Nonnull UUID questId,
@@ -72,6 +72,17 @@ public class QuestAssignment {
         return (int) Math.ceil(ms / 60_000.0);
     }
 
+    /**
+     * Сдвигает срок истечения таймера (пауза / перенос).
+     * Назначения без таймера не изменяются.
+     *
+     * @param deltaMs сдвиг в миллисекундах (может быть отрицательным)
+     */
+    public void shiftExpiry(long deltaMs) {
+        if (expiresAt == Long.MAX_VALUE || deltaMs == 0) return;
+        this.expiresAt = expiresAt + deltaMs;
+    }
+
     /** Помечает назначение как освобождённое (квест возвращён на доску). */
     public void release() {
         this.released = true;
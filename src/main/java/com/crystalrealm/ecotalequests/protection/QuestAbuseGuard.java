@@ -7,6 +7,7 @@ import javax.annotation.Nonnull;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * Защита от абьюза квестовой системы.
@@ -22,12 +23,12 @@ public class QuestAbuseGuard {
 
     private static final PluginLogger LOGGER = PluginLogger.forEnclosingClass();
 
-    private final QuestsConfig config;
+    private final Supplier<QuestsConfig> config;
 
     /** Время последнего принятия квеста: playerUuid → timestamp */
     private final Map<UUID, Long> lastAcceptTime = new ConcurrentHashMap<>();
 
-    public QuestAbuseGuard(@Nonnull QuestsConfig config) {
+    public QuestAbuseGuard(@Nonnull Supplier<QuestsConfig> config) {
         this.config = config;
     }
 
@@ -35,7 +36,7 @@ public class QuestAbuseGuard {
      * Проверяет, может ли игрок принять квест (cooldown).
      */
     public boolean canAcceptQuest(@Nonnull UUID playerUuid) {
-        long cooldown = config.getProtection().getQuestAcceptCooldownMs();
+        long cooldown = config.get().getProtection().getQuestAcceptCooldownMs();
         if (cooldown <= 0) return true;
 
         Long last = lastAcceptTime.get(playerUuid);
@@ -55,7 +56,7 @@ public class QuestAbuseGuard {
      * Проверяет, допустим ли мир для начисления прогресса.
      */
     public boolean isWorldAllowed(@Nonnull String worldName) {
-        var allowed = config.getProtection().getAllowedWorlds();
+        var allowed = config.get().getProtection().getAllowedWorlds();
         if (allowed == null || allowed.isEmpty()) return true; // пустой список = все миры
         return allowed.contains(worldName);
     }
@@ -3,6 +3,7 @@ package com.crystalrealm.ecotalequests.provider.economy;
 import com.crystalrealm.ecotalequests.util.PluginLogger;
 
 import javax.annotation.Nonnull;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -107,4 +108,35 @@ public class EconomyBridge {
             return -1;
         }
     }
+
+    /**
+     * Gets balances of several players in one provider call where supported.
+     *
+     * @return balances keyed by UUID; players whose balance is unavailable are omitted
+     */
+    @Nonnull
+    public Map<UUID, Double> getBalances(@Nonnull Collection<UUID> playerUuids) {
+        if (activeProvider == null || playerUuids.isEmpty()) return Map.of();
+        try {
+            return activeProvider.getBalances(playerUuids);
+        } catch (Exception e) {
+            LOGGER.warn("Economy getBalances failed ({} players): {}", playerUuids.size(), e.getMessage());
+            return Map.of();
+        }
+    }
+
+    /**
+     * Subscribes to balance changes of the active provider.
+     *
+     * @return true if the provider pushes balance changes; false if callers must poll
+     */
+    public boolean subscribeBalanceChanges(@Nonnull EconomyProvider.BalanceListener listener) {
+        if (activeProvider == null) return false;
+        try {
+            return activeProvider.subscribeBalanceChanges(listener);
+        } catch (Exception e) {
+            LOGGER.warn("Economy balance subscription failed: {}", e.getMessage());
+            return false;
+        }
+    }
 }
@@ -1,6 +1,9 @@
 package com.crystalrealm.ecotalequests.provider.economy;
 
 import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -39,4 +42,50 @@ public interface EconomyProvider {
      * @return balance, or -1 if unavailable
      */
     double getBalance(@Nonnull UUID playerUuid);
+
+    /**
+     * Gets the balances of several players at once.
+     *
+     * <p>Providers whose economy can answer many accounts in one call should
+     * override this; the default falls back to {@link #getBalance} per player.</p>
+     *
+     * @param playerUuids players to query
+     * @return balances keyed by UUID; players whose balance is unavailable are omitted
+     */
+    @Nonnull
+    default Map<UUID, Double> getBalances(@Nonnull Collection<UUID> playerUuids) {
+        Map<UUID, Double> result = new HashMap<>(playerUuids.size() * 2);
+        for (UUID uuid : playerUuids) {
+            double balance = getBalance(uuid);
+            if (balance >= 0) result.put(uuid, balance);
+        }
+        return result;
+    }
+
+    /**
+     * Subscribes to balance changes pushed by the economy plugin.
+     *
+     * <p>Providers whose economy exposes transaction events override this
+     * so that coin tracking scales with transactions instead of polling.
+     * The default implementation reports no support.</p>
+     *
+     * @param listener receives one callback per balance change
+     * @return true if the subscription is active; false means callers must poll
+     */
+    default boolean subscribeBalanceChanges(@Nonnull BalanceListener listener) {
+        return false;
+    }
+
+    /**
+     * Callback for pushed balance changes. May be invoked from any thread.
+     */
+    @FunctionalInterface
+    interface BalanceListener {
+
+        /**
+         * @param playerUuid player whose balance changed
+         * @param newBalance balance after the change
+         */
+        void onBalanceChanged(@Nonnull UUID playerUuid, double newBalance);
+    }
 }
@@ -10,6 +10,10 @@ import java.util.UUID;
  * Economy provider for the Ecotale plugin.
  * Uses reflection to call {@code com.ecotale.api.EcotaleAPI} methods,
  * avoiding compile-time dependency.
+ *
+ * <p>The Ecotale API (1.0.7) publishes no balance or transaction events, so
+ * this provider keeps the default {@link #subscribeBalanceChanges} and coin
+ * tracking polls balances instead, one {@code getBalance} per player.</p>
  */
 public class EcotaleEconomyProvider implements EconomyProvider {
 
@@ -2,16 +2,33 @@ package com.crystalrealm.ecotalequests.provider.leveling;
 
 import com.crystalrealm.ecotalequests.util.PluginLogger;
 
+import com.hypixel.hytale.component.Ref;
+
 import javax.annotation.Nonnull;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Leveling bridge that delegates to a pluggable {@link LevelProvider}.
  *
  * <p>Supports multiple registered providers with config-driven or
  * auto-detected activation.</p>
+ *
+ * <p>Player levels are cached per player for a configurable TTL so listener
+ * hot paths read a volatile int instead of crossing plugin boundaries.
+ * Stale entries keep serving the last known level while a refresh runs on
+ * the refresh executor (or inline for providers that are not thread-safe).
+ * Level-bearing events update the cache through {@link #recordLevel}, and
+ * XP grants and player leave invalidate it.</p>
+ *
+ * <p>ECS context (Store/Ref) is captured once per player session via
+ * {@link #ensureSession}: providers are notified only on first sight or when
+ * the cached Ref became invalid / the player moved to another store, and the
+ * session is dropped on {@link #onPlayerLeave}.</p>
  */
 public class LevelBridge {
 
@@ -20,6 +37,14 @@ public class LevelBridge {
     private final Map<String, LevelProvider> providers = new LinkedHashMap<>();
     private LevelProvider activeProvider;
 
+    /** Cached levels: uuid → last known level. */
+    private final Map<UUID, CachedLevel> levelCache = new ConcurrentHashMap<>();
+    private volatile long levelCacheTtlMs = 30_000;
+    private volatile Executor refreshExecutor = Runnable::run;
+
+    /** Captured ECS context per online player. */
+    private final Map<UUID, EcsContext> sessions = new ConcurrentHashMap<>();
+
     public LevelBridge() {
         registerProvider("rpgleveling", new RPGLevelingProvider());
         registerProvider("endlessleveling", new EndlessLevelingProvider());
@@ -44,6 +69,7 @@ public class LevelBridge {
      * @return true if a provider was activated
      */
     public boolean activate(@Nonnull String preferredKey) {
+        levelCache.clear();
         LevelProvider preferred = providers.get(preferredKey.toLowerCase());
         if (preferred != null && preferred.isAvailable()) {
             activeProvider = preferred;
@@ -82,14 +108,83 @@ public class LevelBridge {
     }
 
     /**
-     * Gets a player's level via the active provider.
+     * Sets how long a cached level is served before it is refreshed.
+     * 0 disables caching.
+     */
+    public void setLevelCacheTtlMs(long ttlMs) {
+        this.levelCacheTtlMs = Math.max(0, ttlMs);
+    }
+
+    /** Executor for background level refreshes of thread-safe providers. */
+    public void setRefreshExecutor(@Nonnull Executor executor) {
+        this.refreshExecutor = executor;
+    }
+
+    /**
+     * Gets a player's level, served from the cache when possible.
+     *
+     * <p>First lookup for a player is synchronous. After that a stale entry
+     * returns the last known level and schedules a single refresh.</p>
      *
      * @return player level, or 1 if no provider available
      */
     public int getPlayerLevel(@Nonnull UUID playerUuid) {
-        if (activeProvider == null) return 1;
+        LevelProvider provider = activeProvider;
+        if (provider == null) return 1;
+        long ttl = levelCacheTtlMs;
+        if (ttl <= 0) return fetchLevel(provider, playerUuid);
+
+        CachedLevel cached = levelCache.get(playerUuid);
+        if (cached == null) {
+            int level = fetchLevel(provider, playerUuid);
+            levelCache.put(playerUuid, new CachedLevel(level));
+            return level;
+        }
+
+        if (System.currentTimeMillis() - cached.refreshedAt >= ttl
+                && cached.refreshing.compareAndSet(false, true)) {
+            Runnable refresh = () -> {
+                try {
+                    cached.set(fetchLevel(provider, playerUuid));
+                } finally {
+                    cached.refreshing.set(false);
+                }
+            };
+            if (provider.isThreadSafe()) {
+                try {
+                    refreshExecutor.execute(refresh);
+                } catch (RuntimeException e) {
+                    cached.refreshing.set(false);
+                }
+            } else {
+                refresh.run();
+            }
+        }
+        return cached.level;
+    }
+
+    /**
+     * Records a level reported by the leveling plugin itself (e.g. on an XP
+     * or level-up event), refreshing the cache without a provider call.
+     */
+    public void recordLevel(@Nonnull UUID playerUuid, int level) {
+        if (level <= 0) return;
+        CachedLevel cached = levelCache.get(playerUuid);
+        if (cached != null) {
+            cached.set(level);
+        } else {
+            levelCache.put(playerUuid, new CachedLevel(level));
+        }
+    }
+
+    /** Drops the cached level so the next lookup hits the provider. */
+    public void invalidateLevel(@Nonnull UUID playerUuid) {
+        levelCache.remove(playerUuid);
+    }
+
+    private int fetchLevel(LevelProvider provider, UUID playerUuid) {
         try {
-            return activeProvider.getPlayerLevel(playerUuid);
+            return provider.getPlayerLevel(playerUuid);
         } catch (Exception e) {
             LOGGER.warn("Level getPlayerLevel failed ({}): {}", playerUuid, e.getMessage());
             return 1;
@@ -102,15 +197,38 @@ public class LevelBridge {
     public boolean grantXP(@Nonnull UUID playerUuid, double amount, @Nonnull String reason) {
         if (activeProvider == null || amount <= 0) return false;
         try {
-            return activeProvider.grantXP(playerUuid, amount, reason);
+            boolean granted = activeProvider.grantXP(playerUuid, amount, reason);
+            // XP may have caused a level-up
+            if (granted) invalidateLevel(playerUuid);
+            return granted;
         } catch (Exception e) {
             LOGGER.warn("Level grantXP failed ({}, {}): {}", playerUuid, amount, e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Captures the player's ECS context for this session. Hot-path safe:
+     * when the session already holds a valid Ref in the same store this is a
+     * single map read, and providers are not notified again.
+     */
+    public void ensureSession(@Nonnull UUID uuid, @Nonnull Object store, @Nonnull Ref<?> ref) {
+        EcsContext session = sessions.get(uuid);
+        if (session != null && session.store() == store && session.ref().isValid()) return;
+        onPlayerJoin(uuid, store, ref);
+    }
+
+    /** Whether a live ECS context is captured for the player. */
+    public boolean hasSession(@Nonnull UUID uuid) {
+        EcsContext session = sessions.get(uuid);
+        return session != null && session.ref().isValid();
+    }
+
     /** Notify all providers about a new player (caches ECS Store/Ref for providers that need it). */
     public void onPlayerJoin(@Nonnull UUID uuid, @Nonnull Object store, @Nonnull Object ref) {
+        if (ref instanceof Ref<?> ecsRef) {
+            sessions.put(uuid, new EcsContext(store, ecsRef));
+        }
         for (LevelProvider p : providers.values()) {
             try { p.onPlayerJoin(uuid, store, ref); } catch (Exception ignored) {}
         }
@@ -118,8 +236,29 @@ public class LevelBridge {
 
     /** Notify all providers that a player left. */
     public void onPlayerLeave(@Nonnull UUID uuid) {
+        sessions.remove(uuid);
+        levelCache.remove(uuid);
         for (LevelProvider p : providers.values()) {
             try { p.onPlayerLeave(uuid); } catch (Exception ignored) {}
         }
     }
+
+    /** ECS context captured for one player session. */
+    private record EcsContext(Object store, Ref<?> ref) {}
+
+    /** Cached level entry; refreshed in place. */
+    private static final class CachedLevel {
+        volatile int level;
+        volatile long refreshedAt;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        CachedLevel(int level) {
+            set(level);
+        }
+
+        void set(int level) {
+            this.level = level;
+            this.refreshedAt = System.currentTimeMillis();
+        }
+    }
 }
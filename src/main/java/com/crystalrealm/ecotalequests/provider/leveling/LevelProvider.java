@@ -50,4 +50,11 @@ public interface LevelProvider {
 
     /** Called when a player leaves. */
     default void onPlayerLeave(@Nonnull UUID uuid) {}
+
+    /**
+     * Whether {@link #getPlayerLevel} may be called off the world thread.
+     * Providers that read ECS state (Store/Ref) must return false; the bridge
+     * then refreshes cached levels inline on the calling thread.
+     */
+    default boolean isThreadSafe() { return true; }
 }
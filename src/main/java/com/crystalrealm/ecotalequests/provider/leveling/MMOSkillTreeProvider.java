@@ -113,6 +113,12 @@ public class MMOSkillTreeProvider implements LevelProvider {
         return available;
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        // getTotalLevel reads the ECS Store — world thread only
+        return false;
+    }
+
     @Override
     public int getPlayerLevel(@Nonnull UUID playerUuid) {
         if (!isAvailable() || getTotalLevelMethod == null) return 1;
@@ -4,29 +4,36 @@ import com.crystalrealm.ecotalequests.config.QuestsConfig;
 import com.crystalrealm.ecotalequests.model.Quest;
 import com.crystalrealm.ecotalequests.provider.economy.EconomyBridge;
 import com.crystalrealm.ecotalequests.provider.leveling.LevelBridge;
+import com.crystalrealm.ecotalequests.util.PlayerSession;
+import com.crystalrealm.ecotalequests.util.PlayerSessions;
 import com.crystalrealm.ecotalequests.util.PluginLogger;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 /**
  * Рассчитывает и выдаёт награды за выполненные квесты.
  *
  * <p>Использует EconomyBridge для депозита валюты и LevelBridge для начисления XP.
- * Награда скейлится по уровню игрока и VIP-тиру.</p>
+ * Награда скейлится по уровню игрока и VIP-тиру. VIP-тир определяется
+ * один раз на сессию и хранится в {@link PlayerSession}.</p>
  */
 public class QuestRewardCalculator {
 
     private static final PluginLogger LOGGER = PluginLogger.forEnclosingClass();
 
-    private final QuestsConfig config;
+    private final Supplier<QuestsConfig> config;
     private EconomyBridge economyBridge;
     private LevelBridge levelBridge;
 
-    public QuestRewardCalculator(@Nonnull QuestsConfig config) {
+    public QuestRewardCalculator(@Nonnull Supplier<QuestsConfig> config) {
         this.config = config;
     }
 
@@ -45,7 +52,7 @@ public class QuestRewardCalculator {
      */
     public double calculateFinalReward(@Nonnull Quest quest, int playerLevel, double vipMultiplier) {
         double baseCoins = quest.getReward().getBaseCoins();
-        double levelMult = config.getRewards().getLevelMultiplier(playerLevel);
+        double levelMult = config.get().getRewards().getLevelMultiplier(playerLevel);
         return Math.round(baseCoins * levelMult * vipMultiplier * 100.0) / 100.0;
     }
 
@@ -97,7 +104,7 @@ public class QuestRewardCalculator {
      */
     public int calculateBonusXP(@Nonnull Quest quest, int playerLevel, double vipMultiplier) {
         int baseXp = quest.getReward().getBonusXp();
-        double levelMult = config.getRewards().getLevelMultiplier(playerLevel);
+        double levelMult = config.get().getRewards().getLevelMultiplier(playerLevel);
         return (int) Math.round(baseXp * levelMult * vipMultiplier);
     }
 
@@ -155,99 +162,147 @@ public class QuestRewardCalculator {
         public static final VipResult NONE = new VipResult(1.0, null);
     }
 
+    /** VIP-тир игрока, определённый на сессию. */
+    public static final PlayerSession.Key<VipResult> VIP_TIER = PlayerSession.Key.of("vipTier");
+
     /**
-     * Определяет VIP-множитель для игрока по его пермишенам.
-     * Перебирает тиры сверху вниз (от высшего к низшему),
-     * возвращает первый подходящий.
-     *
-     * @param playerUuid UUID игрока (ищем в кеше PlayerRef → Player.hasPermission)
+     * VIP-множитель игрока из его сессии. Рефлексии здесь нет: тир
+     * определяется при входе и при смене групп в LuckPerms
+     * ({@link #refreshVipTier}), а также при перезагрузке пермишенов
+     * ({@link #refreshAllVipTiers}); если на тот момент
+     * проверка была невозможна — один раз при первом обращении.
      */
+    @Nonnull
     public VipResult resolveVipMultiplier(@Nonnull UUID playerUuid) {
-        List<QuestsConfig.VipTier> tiers = config.getVipTiers().getTiers();
-        if (tiers == null || tiers.isEmpty()) {
+        PlayerSession session = PlayerSessions.get(playerUuid);
+        if (session == null) {
+            LOGGER.debug("No online session for {} — VIP multiplier defaulting to 1.0", playerUuid);
             return VipResult.NONE;
         }
+        VipResult cached = session.get(VIP_TIER);
+        return cached != null ? cached : refreshVipTier(playerUuid);
+    }
 
-        try {
-            // Получаем PlayerRef из кеша MessageUtil
-            Object playerRef = getPlayerRefFromCache(playerUuid);
-            if (playerRef == null) {
-                LOGGER.debug("No cached PlayerRef for {} — VIP multiplier defaulting to 1.0", playerUuid);
-                return VipResult.NONE;
-            }
+    /**
+     * Определяет VIP-тир по пермишенам и сохраняет в сессии игрока.
+     * Перебирает тиры сверху вниз (от высшего к низшему), берёт первый
+     * подходящий. Если пермишены пока не проверить (сущность игрока ещё
+     * не создана), результат не кешируется.
+     */
+    @Nonnull
+    public VipResult refreshVipTier(@Nonnull UUID playerUuid) {
+        PlayerSession session = PlayerSessions.get(playerUuid);
+        Object playerRef = PlayerSessions.playerRef(playerUuid);
+        if (session == null || playerRef == null) return VipResult.NONE;
 
-            // Пробуем получить hasPermission через PlayerRef или через Player
-            for (QuestsConfig.VipTier tier : tiers) {
-                if (checkPermissionViaReflection(playerRef, tier.getPermission())) {
-                    LOGGER.debug("Player {} matched VIP tier {} (×{})",
-                            playerUuid, tier.getDisplayName(), tier.getMultiplier());
-                    return new VipResult(tier.getMultiplier(), tier.getDisplayName());
-                }
-            }
-        } catch (Exception e) {
-            LOGGER.debug("VIP permission check failed for {}: {}", playerUuid, e.getMessage());
+        VipResult result = computeVipTier(playerUuid, playerRef);
+        if (result == null) {
+            session.remove(VIP_TIER);
+            return VipResult.NONE;
         }
+        session.set(VIP_TIER, result);
+        return result;
+    }
 
-        return VipResult.NONE;
+    /**
+     * Пересчитывает VIP-тиры всех онлайн-игроков (перезагрузка пермишенов/конфига).
+     */
+    public void refreshAllVipTiers() {
+        for (UUID uuid : PlayerSessions.onlinePlayers()) {
+            refreshVipTier(uuid);
+        }
     }
 
     /**
-     * Получает PlayerRef из кеша MessageUtil через рефлексию.
+     * @return подходящий тир, {@link VipResult#NONE}, или null если проверить не удалось
      */
-    private static Object getPlayerRefFromCache(UUID playerUuid) {
-        try {
-            Class<?> clazz = Class.forName("com.crystalrealm.ecotalequests.util.MessageUtil");
-            var field = clazz.getDeclaredField("PLAYER_REF_CACHE");
-            field.setAccessible(true);
-            @SuppressWarnings("unchecked")
-            var cache = (java.util.Map<UUID, Object>) field.get(null);
-            return cache.get(playerUuid);
-        } catch (Exception e) {
-            return null;
+    @Nullable
+    private VipResult computeVipTier(@Nonnull UUID playerUuid, @Nonnull Object playerRef) {
+        List<QuestsConfig.VipTier> tiers = config.get().getVipTiers().getTiers();
+        if (tiers == null || tiers.isEmpty()) {
+            return VipResult.NONE;
         }
+
+        for (QuestsConfig.VipTier tier : tiers) {
+            Boolean granted = checkPermission(playerUuid, playerRef, tier.getPermission());
+            if (granted == null) return null;
+            if (granted) {
+                LOGGER.debug("Player {} matched VIP tier {} (×{})",
+                        playerUuid, tier.getDisplayName(), tier.getMultiplier());
+                return new VipResult(tier.getMultiplier(), tier.getDisplayName());
+            }
+        }
+        return VipResult.NONE;
     }
 
+    // ── Permission access (bound once) ──────────────────────────
+
+    /** {@code hasPermission(String)} на каждый класс: (Object, String)boolean. */
+    private static final ClassValue<Optional<MethodHandle>> HAS_PERMISSION = new ClassValue<>() {
+        @Override
+        protected Optional<MethodHandle> computeValue(Class<?> type) {
+            try {
+                MethodHandle handle = MethodHandles.publicLookup().findVirtual(type, "hasPermission",
+                        MethodType.methodType(boolean.class, String.class));
+                return Optional.of(handle.asType(
+                        MethodType.methodType(boolean.class, Object.class, String.class)));
+            } catch (ReflectiveOperationException e) {
+                return Optional.empty();
+            }
+        }
+    };
+
+    private static volatile boolean serverLookupChecked = false;
+    /** {@code ServerManager.getServer()}: ()Object. */
+    private static MethodHandle getServerHandle;
+
     /**
-     * Проверяет пермишен через рефлексию. Пробуем:
-     * 1. playerRef.hasPermission(String) — если доступен напрямую
-     * 2. Находим Player через PlayerRef.getUuid() → Server API
+     * Проверяет пермишен: напрямую через {@code playerRef.hasPermission},
+     * иначе через Player из {@code ServerManager.getServer().getPlayerByUuid}.
+     *
+     * @return результат, или null если ни один путь недоступен
      */
-    private static boolean checkPermissionViaReflection(Object playerRef, String permission) {
+    @Nullable
+    private static Boolean checkPermission(UUID playerUuid, Object playerRef, String permission) {
         try {
-            // Пытаемся напрямую вызвать hasPermission (если PlayerRef имеет этот метод)
-            Method hasPerm = playerRef.getClass().getMethod("hasPermission", String.class);
-            Object result = hasPerm.invoke(playerRef, permission);
-            if (result instanceof Boolean b) return b;
-        } catch (NoSuchMethodException ignored) {
-            // PlayerRef не имеет hasPermission — пробуем через Player
-        } catch (Exception e) {
-            return false;
+            Optional<MethodHandle> direct = HAS_PERMISSION.get(playerRef.getClass());
+            if (direct.isPresent()) {
+                return (boolean) direct.get().invokeExact(playerRef, permission);
+            }
+
+            Object player = findServerPlayer(playerUuid);
+            if (player == null) return null;
+            Optional<MethodHandle> viaPlayer = HAS_PERMISSION.get(player.getClass());
+            if (viaPlayer.isEmpty()) return null;
+            return (boolean) viaPlayer.get().invokeExact(player, permission);
+        } catch (Throwable e) {
+            LOGGER.debug("VIP permission check failed for {}: {}", playerUuid, e.getMessage());
+            return null;
         }
+    }
 
-        // Пробуем: playerRef → getReference() → entity → Player → hasPermission
-        try {
-            // Альтернатива: используем Server API для поиска Player по UUID
-            Method getUuid = playerRef.getClass().getMethod("getUuid");
-            UUID uuid = (UUID) getUuid.invoke(playerRef);
-
-            // Пробуем через ServerManager.getServer().getPlayerByUuid()
-            Class<?> serverMgr = Class.forName("com.hypixel.hytale.server.ServerManager");
-            Method getServer = serverMgr.getMethod("getServer");
-            Object server = getServer.invoke(null);
-            if (server != null) {
-                Method getPlayer = server.getClass().getMethod("getPlayerByUuid", UUID.class);
-                Object player = getPlayer.invoke(server, uuid);
-                if (player != null) {
-                    Method hasPerm = player.getClass().getMethod("hasPermission", String.class);
-                    Object result = hasPerm.invoke(player, permission);
-                    if (result instanceof Boolean b) return b;
+    @Nullable
+    private static Object findServerPlayer(UUID playerUuid) throws Throwable {
+        if (!serverLookupChecked) {
+            synchronized (QuestRewardCalculator.class) {
+                if (!serverLookupChecked) {
+                    try {
+                        Class<?> serverMgr = Class.forName("com.hypixel.hytale.server.ServerManager");
+                        getServerHandle = MethodHandles.publicLookup()
+                                .unreflect(serverMgr.getMethod("getServer"))
+                                .asType(MethodType.methodType(Object.class));
+                    } catch (ReflectiveOperationException e) {
+                        LOGGER.debug("ServerManager.getServer unavailable: {}", e.getMessage());
+                    }
+                    serverLookupChecked = true;
                 }
             }
-        } catch (Exception ignored) {
-            // Fallback failed — no VIP check possible
         }
+        if (getServerHandle == null) return null;
 
-        return false;
+        Object server = (Object) getServerHandle.invokeExact();
+        if (server == null) return null;
+        // Класс сервера известен только в рантайме; поиск выполняется лишь при определении тира
+        return server.getClass().getMethod("getPlayerByUuid", UUID.class).invoke(server, playerUuid);
     }
-
 }
@@ -0,0 +1,194 @@
+package com.crystalrealm.ecotalequests.service;
+
+import com.crystalrealm.ecotalequests.model.QuestBoardLocation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Пространственный индекс досок квестов одного мира.
+ *
+ * <p>Доски хранятся в двух хеш-таблицах с упакованными в {@code long}
+ * ключами: по точной позиции блока (O(1) для {@link #get}) и по колонке
+ * чанка (сетка {@value #CELL_SIZE}×{@value #CELL_SIZE}). Поиск в радиусе
+ * обходит только ячейки, пересекающие радиус; если ячеек больше, чем досок
+ * в мире, выгоднее линейный проход — выбирается меньшее.</p>
+ *
+ * <p>Изменения редки (размещение/удаление досок): они идут под одним
+ * монитором индекса, чтобы обе таблицы менялись согласованно, а ячейки —
+ * copy-on-write списки, поэтому чтение идёт без блокировок.</p>
+ */
+final class BoardSpatialIndex {
+
+    /** log2 размера ячейки сетки в блоках (совпадает с чанком Hytale). */
+    static final int CELL_SHIFT = 5;
+    static final int CELL_SIZE = 1 << CELL_SHIFT;
+
+    private final Map<Long, QuestBoardLocation> byBlock = new ConcurrentHashMap<>();
+    private final Map<Long, List<QuestBoardLocation>> byCell = new ConcurrentHashMap<>();
+    /** Сериализует изменения: {@code byBlock} и {@code byCell} обновляются вместе. */
+    private final Object mutationLock = new Object();
+
+    // ═════════════════════════════════════════════════════════════
+    //  KEYS
+    // ═════════════════════════════════════════════════════════════
+
+    /** Упаковка позиции блока: X и Z по 26 бит, Y — 12 бит (со знаком). */
+    static long blockKey(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    /** Упаковка координат ячейки (колонки чанка). */
+    static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    //  MUTATION
+    // ═════════════════════════════════════════════════════════════
+
+    /**
+     * Добавляет доску, если позиция свободна.
+     *
+     * @return true если доска добавлена
+     */
+    boolean add(@Nonnull QuestBoardLocation board) {
+        long key = blockKey(board.getX(), board.getY(), board.getZ());
+        synchronized (mutationLock) {
+            if (byBlock.putIfAbsent(key, board) != null) return false;
+            byCell.computeIfAbsent(cellKey(board.getX() >> CELL_SHIFT, board.getZ() >> CELL_SHIFT),
+                    k -> new CopyOnWriteArrayList<>()).add(board);
+        }
+        return true;
+    }
+
+    /**
+     * Удаляет доску по позиции.
+     *
+     * @return удалённая доска или null
+     */
+    @Nullable
+    QuestBoardLocation remove(int x, int y, int z) {
+        synchronized (mutationLock) {
+            QuestBoardLocation board = byBlock.remove(blockKey(x, y, z));
+            if (board == null) return null;
+            long cellKey = cellKey(x >> CELL_SHIFT, z >> CELL_SHIFT);
+            List<QuestBoardLocation> cell = byCell.get(cellKey);
+            if (cell != null) {
+                cell.remove(board);
+                if (cell.isEmpty()) byCell.remove(cellKey);
+            }
+            return board;
+        }
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    //  QUERIES
+    // ═════════════════════════════════════════════════════════════
+
+    @Nullable
+    QuestBoardLocation get(int x, int y, int z) {
+        return byBlock.get(blockKey(x, y, z));
+    }
+
+    int size() {
+        return byBlock.size();
+    }
+
+    boolean isEmpty() {
+        return byBlock.isEmpty();
+    }
+
+    /** Доски в колонке чанка. */
+    @Nonnull
+    List<QuestBoardLocation> inCell(int cellX, int cellZ) {
+        List<QuestBoardLocation> cell = byCell.get(cellKey(cellX, cellZ));
+        return cell != null ? List.copyOf(cell) : List.of();
+    }
+
+    /**
+     * Ближайшая доска в пределах {@code maxDistance} (строго меньше).
+     */
+    @Nullable
+    QuestBoardLocation nearest(int x, int y, int z, double maxDistance) {
+        Nearest visitor = new Nearest(x, y, z, maxDistance * maxDistance);
+        visit(x, z, maxDistance, visitor);
+        return visitor.best;
+    }
+
+    /**
+     * Все доски в пределах {@code radius} (включительно).
+     */
+    @Nonnull
+    List<QuestBoardLocation> within(int x, int y, int z, double radius) {
+        double radiusSq = radius * radius;
+        List<QuestBoardLocation> out = new ArrayList<>();
+        visit(x, z, radius, board -> {
+            if (distanceSq(board, x, y, z) <= radiusSq) out.add(board);
+        });
+        return out;
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    //  INTERNAL
+    // ═════════════════════════════════════════════════════════════
+
+    /**
+     * Обходит кандидатов в квадрате радиуса: по ячейкам сетки, либо
+     * линейно, если ячеек в квадрате больше, чем досок в мире.
+     */
+    private void visit(int x, int z, double radius, Consumer<QuestBoardLocation> visitor) {
+        if (byBlock.isEmpty() || !(radius >= 0)) return;
+
+        int reach = (int) Math.min(Math.ceil(radius), Integer.MAX_VALUE >> 1);
+        long minCellX = (long) (x - reach) >> CELL_SHIFT, maxCellX = (long) (x + reach) >> CELL_SHIFT;
+        long minCellZ = (long) (z - reach) >> CELL_SHIFT, maxCellZ = (long) (z + reach) >> CELL_SHIFT;
+        long cells = (maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1);
+
+        if (cells > byBlock.size()) {
+            byBlock.values().forEach(visitor);
+            return;
+        }
+        for (long cx = minCellX; cx <= maxCellX; cx++) {
+            for (long cz = minCellZ; cz <= maxCellZ; cz++) {
+                List<QuestBoardLocation> cell = byCell.get(cellKey((int) cx, (int) cz));
+                if (cell != null) cell.forEach(visitor);
+            }
+        }
+    }
+
+    private static double distanceSq(QuestBoardLocation board, int x, int y, int z) {
+        double dx = board.getX() - x;
+        double dy = board.getY() - y;
+        double dz = board.getZ() - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static final class Nearest implements Consumer<QuestBoardLocation> {
+        private final int x, y, z;
+        private double bestDistSq;
+        private QuestBoardLocation best;
+
+        Nearest(int x, int y, int z, double maxDistSq) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.bestDistSq = maxDistSq;
+        }
+
+        @Override
+        public void accept(QuestBoardLocation board) {
+            double distSq = distanceSq(board, x, y, z);
+            if (distSq < bestDistSq) {
+                bestDistSq = distSq;
+                best = board;
+            }
+        }
+    }
+}
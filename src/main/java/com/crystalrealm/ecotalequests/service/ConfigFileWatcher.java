@@ -0,0 +1,225 @@
+package com.crystalrealm.ecotalequests.service;
+
+import com.crystalrealm.ecotalequests.util.PluginLogger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Наблюдатель за файлами конфигурации для hot-reload без команды.
+ *
+ * <p>Следит через {@link WatchService} за конфигом, {@code permissions.json}
+ * и {@code lang/*.json}. Всплеск событий (редактор сохраняет файл в
+ * несколько записей) схлопывается: перезагрузка запускается, когда
+ * файлы не менялись {@code debounceMs}. Изменённые цели передаются
+ * обработчику на фоновом потоке наблюдателя — разбор и проверка идут
+ * там же, а игровые потоки видят только готовую подмену.</p>
+ *
+ * <p>События, после которых содержимое не изменилось (touch, повторное
+ * сохранение того же текста), отбрасываются по контрольной сумме.</p>
+ */
+public class ConfigFileWatcher {
+
+    private static final PluginLogger LOGGER = PluginLogger.forEnclosingClass();
+
+    /** Что изменилось. */
+    public enum Target { CONFIG, PERMISSIONS, LANG }
+
+    private final Path configFile;
+    @Nullable private final Path permissionsFile;
+    private final Path langDirectory;
+    private final long debounceMs;
+    private final Consumer<Set<Target>> reloadAction;
+
+    private final Map<Target, Long> checksums = new EnumMap<>(Target.class);
+    private final Map<WatchKey, Path> watchedDirs = new HashMap<>();
+    private WatchService watchService;
+    private Thread thread;
+    private volatile boolean running;
+
+    public ConfigFileWatcher(@Nonnull Path configFile,
+                             @Nullable Path permissionsFile,
+                             @Nonnull Path langDirectory,
+                             long debounceMs,
+                             @Nonnull Consumer<Set<Target>> reloadAction) {
+        this.configFile = configFile.toAbsolutePath().normalize();
+        this.permissionsFile = permissionsFile != null ? permissionsFile.toAbsolutePath().normalize() : null;
+        this.langDirectory = langDirectory.toAbsolutePath().normalize();
+        this.debounceMs = Math.max(50, debounceMs);
+        this.reloadAction = reloadAction;
+    }
+
+    /**
+     * Регистрирует каталоги и запускает поток наблюдателя.
+     *
+     * @return true если наблюдение запущено
+     */
+    public synchronized boolean start() {
+        if (running) return true;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            register(configFile.getParent());
+            register(langDirectory);
+            if (permissionsFile != null) register(permissionsFile.getParent());
+        } catch (IOException | UnsupportedOperationException e) {
+            LOGGER.warn("File watching unavailable: {} — use /quests reload.", e.getMessage());
+            closeQuietly();
+            return false;
+        }
+
+        for (Target target : Target.values()) {
+            checksums.put(target, checksum(target));
+        }
+
+        running = true;
+        thread = new Thread(this::run, "EcoTaleQuests-ConfigWatcher");
+        thread.setDaemon(true);
+        thread.start();
+        LOGGER.info("Watching {} director{} for config changes.",
+                watchedDirs.size(), watchedDirs.size() == 1 ? "y" : "ies");
+        return true;
+    }
+
+    /**
+     * Останавливает наблюдение.
+     */
+    public synchronized void stop() {
+        running = false;
+        closeQuietly();
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    //  WATCH LOOP
+    // ═════════════════════════════════════════════════════════════
+
+    private void run() {
+        WatchService service = watchService;
+        try {
+            while (running) {
+                Set<Target> changed = EnumSet.noneOf(Target.class);
+                collect(service.take(), changed);
+
+                // Ждём, пока серия записей утихнет
+                WatchKey next;
+                while ((next = service.poll(debounceMs, TimeUnit.MILLISECONDS)) != null) {
+                    collect(next, changed);
+                }
+
+                changed.removeIf(target -> !contentChanged(target));
+                if (changed.isEmpty()) continue;
+
+                LOGGER.info("Detected changes in {} — reloading.", changed);
+                try {
+                    reloadAction.accept(changed);
+                } catch (Exception e) {
+                    LOGGER.error("Hot reload failed", e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // stop()
+        }
+    }
+
+    private void collect(WatchKey key, Set<Target> changed) {
+        Path dir = watchedDirs.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (dir == null) continue;
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed.addAll(EnumSet.allOf(Target.class));
+                continue;
+            }
+            Path file = dir.resolve((Path) event.context());
+            Target target = classify(file);
+            if (target != null) changed.add(target);
+        }
+        key.reset();
+    }
+
+    @Nullable
+    private Target classify(Path file) {
+        if (file.equals(configFile)) return Target.CONFIG;
+        if (file.equals(permissionsFile)) return Target.PERMISSIONS;
+        if (langDirectory.equals(file.getParent()) && file.toString().endsWith(".json")) return Target.LANG;
+        return null;
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    //  CHECKSUMS
+    // ═════════════════════════════════════════════════════════════
+
+    private boolean contentChanged(Target target) {
+        long current = checksum(target);
+        Long previous = checksums.put(target, current);
+        return previous == null || previous != current;
+    }
+
+    /** CRC32 содержимого цели; для lang — всех {@code *.json} по порядку имён. */
+    private long checksum(Target target) {
+        CRC32 crc = new CRC32();
+        try {
+            switch (target) {
+                case CONFIG -> update(crc, configFile);
+                case PERMISSIONS -> {
+                    if (permissionsFile != null) update(crc, permissionsFile);
+                }
+                case LANG -> {
+                    if (!Files.isDirectory(langDirectory)) break;
+                    try (Stream<Path> files = Files.list(langDirectory)) {
+                        for (Path file : files.filter(p -> p.toString().endsWith(".json")).sorted().toList()) {
+                            crc.update(file.getFileName().toString().getBytes(StandardCharsets.UTF_8));
+                            update(crc, file);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            return -1; // нечитаемо сейчас — следующее событие сравнит заново
+        }
+        return crc.getValue();
+    }
+
+    private static void update(CRC32 crc, Path file) throws IOException {
+        if (Files.exists(file)) crc.update(Files.readAllBytes(file));
+    }
+
+    private void register(Path dir) throws IOException {
+        if (dir == null || !Files.isDirectory(dir) || watchedDirs.containsValue(dir)) return;
+        WatchKey key = dir.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        watchedDirs.put(key, dir);
+    }
+
+    private void closeQuietly() {
+        if (watchService == null) return;
+        try {
+            watchService.close();
+        } catch (IOException ignored) {}
+        watchService = null;
+        watchedDirs.clear();
+    }
+}
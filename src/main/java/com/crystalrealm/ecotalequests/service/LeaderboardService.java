@@ -0,0 +1,358 @@
+package com.crystalrealm.ecotalequests.service;
+
+import com.crystalrealm.ecotalequests.model.PlayerRankData;
+import com.crystalrealm.ecotalequests.util.PluginLogger;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инкрементальный индекс лидерборда квестовой гильдии.
+ *
+ * <p>Игроки хранятся в order-statistic дереве (treap с размерами поддеревьев),
+ * упорядоченном по очкам ранга (desc), затем по числу выполненных квестов (desc).
+ * Индекс обновляется из {@link QuestRankService} при каждом изменении очков,
+ * поэтому чтение топ-K стоит O(log n + K), а позиция игрока — O(log n),
+ * без полной сортировки всех ранговых данных.</p>
+ *
+ * <p>В индекс попадают только игроки с очками или выполненными квестами.</p>
+ *
+ * <p>Каждое изменение индекса увеличивает {@link #getVersion() версию};
+ * страницы лидерборда кешируются по версии, поэтому повторные открытия
+ * одной и той же страницы без изменений очков ничего не стоят.</p>
+ */
+public class LeaderboardService {
+
+    private static final PluginLogger LOGGER = PluginLogger.forEnclosingClass();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Текущий ключ каждого проиндексированного игрока. */
+    private final Map<UUID, Key> keys = new HashMap<>();
+
+    /** Источник приоритетов treap (guarded by write lock). */
+    private final SplittableRandom random = new SplittableRandom();
+
+    private Node root;
+
+    /** Версия индекса — растёт при каждом изменении порядка или данных. */
+    private volatile long version;
+
+    /** Кеш страниц: ключ = (pageSize << 32) | page. Сбрасывается при смене версии. */
+    private final Map<Long, Page> pageCache = new ConcurrentHashMap<>();
+
+    // ═════════════════════════════════════════════════════════════
+    //  INDEX MAINTENANCE
+    // ═════════════════════════════════════════════════════════════
+
+    /**
+     * Полностью перестраивает индекс по ранговым данным из хранилища.
+     */
+    public void rebuild(@Nonnull Collection<PlayerRankData> allData) {
+        lock.writeLock().lock();
+        try {
+            root = null;
+            keys.clear();
+            for (PlayerRankData data : allData) {
+                insertUnlocked(data);
+            }
+            bumpVersion();
+            LOGGER.info("Leaderboard index built: {} ranked players.", keys.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Переиндексирует игрока после изменения его очков или статистики.
+     * Вызывать после мутации {@link PlayerRankData}.
+     */
+    public void update(@Nonnull PlayerRankData data) {
+        lock.writeLock().lock();
+        try {
+            Key old = keys.remove(data.getPlayerUuid());
+            if (old != null) root = delete(root, old);
+            insertUnlocked(data);
+            bumpVersion();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    //  QUERIES
+    // ═════════════════════════════════════════════════════════════
+
+    /**
+     * Возвращает первых {@code limit} игроков лидерборда.
+     */
+    @Nonnull
+    public List<PlayerRankData> top(int limit) {
+        return range(0, limit);
+    }
+
+    /**
+     * Возвращает {@code limit} игроков, начиная с позиции {@code offset} (с 0).
+     */
+    @Nonnull
+    public List<PlayerRankData> range(int offset, int limit) {
+        if (limit <= 0 || offset < 0) return List.of();
+        lock.readLock().lock();
+        try {
+            List<PlayerRankData> out = new ArrayList<>(Math.min(limit, size(root)));
+            collect(root, offset, limit, out);
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Позиция игрока в лидерборде (с 1).
+     *
+     * @return позиция, или 0 если игрок не в лидерборде
+     */
+    public int getPosition(@Nonnull UUID playerUuid) {
+        lock.readLock().lock();
+        try {
+            return positionUnlocked(playerUuid);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Страница лидерборда (с 1). Номер страницы ограничивается диапазоном
+     * [1, totalPages]; результат кешируется до следующего изменения индекса.
+     */
+    @Nonnull
+    public Page getPage(int page, int pageSize) {
+        if (pageSize <= 0) throw new IllegalArgumentException("pageSize must be positive");
+        long key = ((long) pageSize << 32) | (page & 0xFFFFFFFFL);
+        Page cached = pageCache.get(key);
+        if (cached != null && cached.version() == version) return cached;
+
+        lock.readLock().lock();
+        try {
+            int total = size(root);
+            int totalPages = Math.max(1, (total + pageSize - 1) / pageSize);
+            int clamped = Math.max(1, Math.min(page, totalPages));
+            int offset = (clamped - 1) * pageSize;
+            List<PlayerRankData> entries = new ArrayList<>(Math.min(pageSize, total));
+            collect(root, offset, pageSize, entries);
+
+            Page result = new Page(clamped, totalPages, offset, total,
+                    Collections.unmodifiableList(entries), version);
+            // Кешируем только существующие страницы — кеш ограничен числом страниц
+            if (clamped == page) pageCache.put(key, result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Окно лидерборда вокруг игрока: до {@code radius} соседей выше и ниже.
+     * Если игрок не в лидерборде — возвращается начало лидерборда того же размера.
+     * Окно не выровнено по страницам, поэтому {@code page} и {@code totalPages}
+     * у него равны 0 — показывайте позиции {@code offset + 1 .. offset + n}.
+     */
+    @Nonnull
+    public Page getAround(@Nonnull UUID playerUuid, int radius) {
+        int window = Math.max(0, radius) * 2 + 1;
+        lock.readLock().lock();
+        try {
+            int total = size(root);
+            int position = positionUnlocked(playerUuid);
+            int offset = position > 0
+                    ? Math.max(0, Math.min(position - 1 - radius, total - window))
+                    : 0;
+            List<PlayerRankData> entries = new ArrayList<>(Math.min(window, total));
+            collect(root, offset, window, entries);
+
+            return new Page(0, 0, offset, total, Collections.unmodifiableList(entries), version);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Номер страницы (с 1), на которой находится игрок.
+     *
+     * @return номер страницы, или 0 если игрок не в лидерборде
+     */
+    public int getPageOf(@Nonnull UUID playerUuid, int pageSize) {
+        int position = getPosition(playerUuid);
+        return position > 0 ? (position - 1) / pageSize + 1 : 0;
+    }
+
+    /** Текущая версия индекса. */
+    public long getVersion() {
+        return version;
+    }
+
+    /** Количество игроков в лидерборде. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    //  TREAP (call under lock)
+    // ═════════════════════════════════════════════════════════════
+
+    private int positionUnlocked(@Nonnull UUID playerUuid) {
+        Key key = keys.get(playerUuid);
+        if (key == null) return 0;
+
+        int index = 0;
+        Node node = root;
+        while (node != null) {
+            int c = key.compareTo(node.key);
+            if (c < 0) {
+                node = node.left;
+            } else if (c > 0) {
+                index += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return index + size(node.left) + 1;
+            }
+        }
+        return 0;
+    }
+
+    /** Вызывать под write lock. */
+    private void bumpVersion() {
+        version++;
+        pageCache.clear();
+    }
+
+    private void insertUnlocked(@Nonnull PlayerRankData data) {
+        if (data.getRankPoints() <= 0 && data.getTotalCompleted() <= 0) return;
+        Key key = new Key(data.getRankPoints(), data.getTotalCompleted(), data.getPlayerUuid());
+        keys.put(data.getPlayerUuid(), key);
+
+        Node node = new Node(key, data, random.nextInt());
+        Node[] parts = split(root, key);
+        root = merge(merge(parts[0], node), parts[1]);
+    }
+
+    /** Разбивает дерево на (ключи &lt; key) и (ключи &gt;= key). */
+    private static Node[] split(Node node, Key key) {
+        if (node == null) return new Node[]{null, null};
+        if (node.key.compareTo(key) < 0) {
+            Node[] parts = split(node.right, key);
+            node.right = parts[0];
+            node.recount();
+            return new Node[]{node, parts[1]};
+        }
+        Node[] parts = split(node.left, key);
+        node.left = parts[1];
+        node.recount();
+        return new Node[]{parts[0], node};
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            a.recount();
+            return a;
+        }
+        b.left = merge(a, b.left);
+        b.recount();
+        return b;
+    }
+
+    private static Node delete(Node node, Key key) {
+        if (node == null) return null;
+        int c = key.compareTo(node.key);
+        if (c == 0) return merge(node.left, node.right);
+        if (c < 0) {
+            node.left = delete(node.left, key);
+        } else {
+            node.right = delete(node.right, key);
+        }
+        node.recount();
+        return node;
+    }
+
+    /** In-order обход с пропуском первых {@code offset} элементов. */
+    private static void collect(Node node, int offset, int limit, List<PlayerRankData> out) {
+        if (node == null || out.size() >= limit) return;
+        int leftSize = size(node.left);
+        if (offset < leftSize) {
+            collect(node.left, offset, limit, out);
+        }
+        if (offset <= leftSize && out.size() < limit) {
+            out.add(node.data);
+        }
+        collect(node.right, Math.max(0, offset - leftSize - 1), limit, out);
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    //  INTERNAL TYPES
+    // ═════════════════════════════════════════════════════════════
+
+    /**
+     * Срез лидерборда.
+     *
+     * @param page       номер страницы (с 1); 0 для окна вокруг игрока
+     * @param totalPages всего страниц при данном размере; 0 для окна вокруг игрока
+     * @param offset     позиция первой записи (с 0); позиция записи i = offset + i + 1
+     * @param total      всего игроков в лидерборде
+     * @param entries    записи среза
+     * @param version    версия индекса, по которой построен срез
+     */
+    public record Page(int page, int totalPages, int offset, int total,
+                       @Nonnull List<PlayerRankData> entries, long version) {
+
+        public boolean isEmpty() {
+            return entries.isEmpty();
+        }
+    }
+
+    /**
+     * Снимок сортировочных полей игрока. Очки и статистика в
+     * {@link PlayerRankData} мутируют на месте, поэтому дерево
+     * упорядочено по снимку, а не по живому объекту.
+     */
+    private record Key(int points, int completed, UUID playerUuid) implements Comparable<Key> {
+        @Override
+        public int compareTo(@Nonnull Key o) {
+            if (points != o.points) return Integer.compare(o.points, points);
+            if (completed != o.completed) return Integer.compare(o.completed, completed);
+            return playerUuid.compareTo(o.playerUuid);
+        }
+    }
+
+    private static final class Node {
+        final Key key;
+        final PlayerRankData data;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(Key key, PlayerRankData data, int priority) {
+            this.key = key;
+            this.data = data;
+            this.priority = priority;
+        }
+
+        void recount() {
+            size = 1 + LeaderboardService.size(left) + LeaderboardService.size(right);
+        }
+    }
+}
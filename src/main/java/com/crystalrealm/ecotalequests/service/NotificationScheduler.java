@@ -0,0 +1,250 @@
+package com.crystalrealm.ecotalequests.service;
+
+import com.crystalrealm.ecotalequests.util.PluginLogger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Планировщик HUD-уведомлений о квестах с объединением и лимитом частоты.
+ *
+ * <p>Уведомления о прогрессе одного квеста, пришедшие в пределах окна
+ * объединения, схлопываются: игроку уходит только последнее состояние.
+ * Уведомления о порогах (25/50/75%) держатся в отдельном слоте квеста —
+ * последующий прогресс их не вытесняет, и они уходят раньше него.
+ * Приоритетные уведомления (завершение, провал, предложение слота)
+ * отправляются сразу и всегда раньше накопленного прогресса; при этом
+ * отложенный прогресс того же квеста отбрасывается как устаревший.</p>
+ *
+ * <p>Частота отправки на игрока ограничена token bucket; то, что не
+ * уложилось в лимит, остаётся в очереди до следующего сброса. Очередь
+ * игрока удаляется при его выходе ({@link #clear}).</p>
+ */
+public final class NotificationScheduler {
+
+    private static final PluginLogger LOGGER = PluginLogger.forEnclosingClass();
+
+    private final ScheduledExecutorService executor;
+    private final Map<UUID, PlayerQueue> queues = new ConcurrentHashMap<>();
+    private volatile long windowMs;
+    private volatile int maxPerSecond;
+
+    public NotificationScheduler(@Nonnull ScheduledExecutorService executor,
+                                 long windowMs, int maxPerSecond) {
+        this.executor = executor;
+        configure(windowMs, maxPerSecond);
+    }
+
+    /**
+     * Обновляет окно объединения и лимит (применяется к новым сбросам).
+     */
+    public void configure(long windowMs, int maxPerSecond) {
+        this.windowMs = Math.max(0, windowMs);
+        this.maxPerSecond = Math.max(1, maxPerSecond);
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    //  SUBMISSION
+    // ═════════════════════════════════════════════════════════════
+
+    /**
+     * Ставит уведомление о прогрессе квеста. Предыдущее неотправленное
+     * уведомление того же квеста заменяется.
+     */
+    public void submitProgress(@Nonnull UUID playerUuid, @Nonnull UUID questId, @Nonnull Runnable send) {
+        if (windowMs == 0) {
+            // Без окна склейки — сразу, не отбрасывая отложенный порог этого квеста
+            submitPriority(playerUuid, null, send);
+            return;
+        }
+        enqueue(playerUuid, questId, send, false);
+    }
+
+    /**
+     * Ставит уведомление о пороге прогресса квеста. Заменяет только
+     * предыдущий неотправленный порог того же квеста, но не прогресс.
+     */
+    public void submitMilestone(@Nonnull UUID playerUuid, @Nonnull UUID questId, @Nonnull Runnable send) {
+        if (windowMs == 0) {
+            submitPriority(playerUuid, null, send);
+            return;
+        }
+        enqueue(playerUuid, questId, send, true);
+    }
+
+    private void enqueue(UUID playerUuid, UUID questId, Runnable send, boolean milestone) {
+        PlayerQueue queue = queues.computeIfAbsent(playerUuid, k -> new PlayerQueue());
+        boolean schedule;
+        synchronized (queue) {
+            (milestone ? queue.milestones : queue.progress).put(questId, send);
+            schedule = !queue.flushScheduled;
+            queue.flushScheduled = true;
+        }
+        if (schedule) scheduleFlush(playerUuid, queue, windowMs);
+    }
+
+    /**
+     * Отправляет приоритетное уведомление — сразу, если позволяет лимит,
+     * иначе первым в очереди. Отложенные прогресс и порог квеста отбрасываются.
+     *
+     * @param questId квест уведомления, или null если не относится к квесту
+     */
+    public void submitPriority(@Nonnull UUID playerUuid, @Nullable UUID questId, @Nonnull Runnable send) {
+        PlayerQueue queue = queues.computeIfAbsent(playerUuid, k -> new PlayerQueue());
+        boolean sendNow;
+        boolean schedule = false;
+        synchronized (queue) {
+            if (questId != null) {
+                queue.progress.remove(questId);
+                queue.milestones.remove(questId);
+            }
+            sendNow = queue.priority.isEmpty() && queue.tryAcquire(maxPerSecond);
+            if (!sendNow) {
+                queue.priority.addLast(send);
+                schedule = !queue.flushScheduled;
+                queue.flushScheduled = true;
+            }
+        }
+        if (sendNow) {
+            deliver(playerUuid, send);
+        } else if (schedule) {
+            long delay;
+            synchronized (queue) {
+                delay = queue.delayUntilToken(maxPerSecond);
+            }
+            scheduleFlush(playerUuid, queue, delay);
+        }
+    }
+
+    /**
+     * Отбрасывает все отложенные уведомления игрока (например, при выходе).
+     */
+    public void clear(@Nonnull UUID playerUuid) {
+        queues.remove(playerUuid);
+    }
+
+    /**
+     * Отбрасывает все очереди.
+     */
+    public void shutdown() {
+        queues.clear();
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    //  FLUSH
+    // ═════════════════════════════════════════════════════════════
+
+    private void scheduleFlush(UUID playerUuid, PlayerQueue queue, long delayMs) {
+        try {
+            executor.schedule(() -> flush(playerUuid, queue), Math.max(1, delayMs), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            synchronized (queue) {
+                queue.flushScheduled = false;
+            }
+        }
+    }
+
+    /**
+     * Отправляет сначала приоритетные, затем пороги и последние состояния прогресса —
+     * сколько позволяет лимит; остаток переносится на следующий сброс.
+     */
+    private void flush(UUID playerUuid, PlayerQueue queue) {
+        if (queues.get(playerUuid) != queue) return; // очередь сброшена
+
+        Deque<Runnable> batch = new ArrayDeque<>();
+        boolean reschedule;
+        int limit = maxPerSecond;
+        synchronized (queue) {
+            while (!queue.priority.isEmpty() && queue.tryAcquire(limit)) {
+                batch.addLast(queue.priority.pollFirst());
+            }
+            if (queue.priority.isEmpty()) {
+                drain(queue.milestones, queue, limit, batch);
+                if (queue.milestones.isEmpty()) drain(queue.progress, queue, limit, batch);
+            }
+            reschedule = !queue.priority.isEmpty() || !queue.milestones.isEmpty()
+                    || !queue.progress.isEmpty();
+            queue.flushScheduled = reschedule;
+        }
+
+        for (Runnable send : batch) {
+            deliver(playerUuid, send);
+        }
+
+        if (reschedule) {
+            long delay;
+            synchronized (queue) {
+                delay = queue.delayUntilToken(limit);
+            }
+            scheduleFlush(playerUuid, queue, Math.max(windowMs, delay));
+        }
+    }
+
+    private static void drain(Map<UUID, Runnable> pending, PlayerQueue queue, int limit, Deque<Runnable> batch) {
+        Iterator<Runnable> it = pending.values().iterator();
+        while (it.hasNext() && queue.tryAcquire(limit)) {
+            batch.addLast(it.next());
+            it.remove();
+        }
+    }
+
+    private static void deliver(UUID playerUuid, Runnable send) {
+        try {
+            send.run();
+        } catch (Exception e) {
+            LOGGER.debug("Notification delivery failed for {}: {}", playerUuid, e.getMessage());
+        }
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    //  INTERNAL TYPES
+    // ═════════════════════════════════════════════════════════════
+
+    /** Очередь одного игрока (guarded by itself). */
+    private static final class PlayerQueue {
+        final Deque<Runnable> priority = new ArrayDeque<>();
+        /** Последнее состояние прогресса на квест, в порядке первого поступления. */
+        final Map<UUID, Runnable> progress = new LinkedHashMap<>();
+        /** Неотправленный порог (25/50/75%) на квест. */
+        final Map<UUID, Runnable> milestones = new LinkedHashMap<>();
+        boolean flushScheduled;
+
+        /** Token bucket: ёмкость и скорость пополнения — maxPerSecond. */
+        double tokens = -1;
+        long lastRefillNanos;
+
+        boolean tryAcquire(int maxPerSecond) {
+            refill(maxPerSecond);
+            if (tokens < 1) return false;
+            tokens -= 1;
+            return true;
+        }
+
+        long delayUntilToken(int maxPerSecond) {
+            refill(maxPerSecond);
+            if (tokens >= 1) return 0;
+            return (long) Math.ceil((1 - tokens) * 1000.0 / maxPerSecond);
+        }
+
+        private void refill(int maxPerSecond) {
+            long now = System.nanoTime();
+            if (tokens < 0) {
+                tokens = maxPerSecond;
+            } else {
+                double elapsedSec = (now - lastRefillNanos) / 1_000_000_000.0;
+                tokens = Math.min(maxPerSecond, tokens + elapsedSec * maxPerSecond);
+            }
+            lastRefillNanos = now;
+        }
+    }
+}
@@ -10,13 +10,22 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 
 /**
  * Потокобезопасный менеджер доступности квестов.
  *
- * <p>Управляет блокировками для GLOBAL_UNIQUE и LIMITED_SLOTS квестов.
- * Использует Read-Write Lock для масштабируемости при 500+ игроках.</p>
+ * <p>Управляет слотами для GLOBAL_UNIQUE и LIMITED_SLOTS квестов.
+ * Состояние хранится отдельно для каждого квеста: CAS-счётчик занятых
+ * слотов и конкурентное множество держателей. Глобальной блокировки нет —
+ * независимые квесты никогда не конкурируют друг с другом.</p>
+ *
+ * <p>Для заполненных квестов ведётся ограниченная FIFO-очередь ожидания.
+ * Освободившийся слот не возвращается в общий пул, а резервируется за
+ * следующим игроком в очереди на короткое окно подтверждения (claim).
+ * Вышедший игрок убирается из всех очередей ({@link #onPlayerLeave}),
+ * а очередь квеста из сменившегося пула сбрасывается ({@link #clearWaitlist}).</p>
  */
 public class QuestAvailabilityManager {
 
@@ -25,19 +34,46 @@ public class QuestAvailabilityManager {
     private final QuestStorage storage;
 
     /**
-     * Активные назначения: questId → список активных QuestAssignment.
-     * При GLOBAL_UNIQUE — максимум 1 запись.
-     * При LIMITED_SLOTS — до maxSlots записей.
+     * Состояние слотов: questId → {@link SlotState}.
+     * При GLOBAL_UNIQUE — максимум 1 держатель.
+     * При LIMITED_SLOTS — до maxSlots держателей.
      */
-    private final Map<UUID, List<QuestAssignment>> assignments = new ConcurrentHashMap<>();
+    private final Map<UUID, SlotState> slots = new ConcurrentHashMap<>();
+
+    /** Максимальный размер очереди ожидания на квест (0 = очередь выключена). */
+    private volatile int maxWaitlistSize = 10;
 
-    /** Глобальный RW-lock для атомарных операций с назначениями. */
-    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /** Окно подтверждения освободившегося слота (мс). */
+    private volatile long claimWindowMs = 60_000L;
+
+    /** Callback при резервировании слота за игроком из очереди: (questId, playerUuid). */
+    private BiConsumer<UUID, UUID> onSlotOffered;
 
     public QuestAvailabilityManager(@Nonnull QuestStorage storage) {
         this.storage = storage;
     }
 
+    /**
+     * Настраивает очередь ожидания.
+     *
+     * @param maxSize     максимальный размер очереди на квест (0 = выключена)
+     * @param claimWindowMs сколько держится слот за игроком из очереди
+     */
+    public void configureWaitlist(int maxSize, long claimWindowMs) {
+        this.maxWaitlistSize = Math.max(0, maxSize);
+        this.claimWindowMs = Math.max(1_000L, claimWindowMs);
+    }
+
+    /**
+     * Устанавливает callback, вызываемый когда слот зарезервирован
+     * за следующим игроком из очереди.
+     */
+    public void setOnSlotOffered(@Nonnull BiConsumer<UUID, UUID> callback) {
+        this.onSlotOffered = callback;
+    }
+
+    public long getClaimWindowMs() { return claimWindowMs; }
+
     // ═════════════════════════════════════════════════════════════
     //  INITIALIZATION
     // ═════════════════════════════════════════════════════════════
@@ -47,18 +83,15 @@ public class QuestAvailabilityManager {
      */
     public void initialize() {
         List<QuestAssignment> loaded = storage.loadActiveAssignments();
-        lock.writeLock().lock();
-        try {
-            assignments.clear();
-            for (QuestAssignment a : loaded) {
-                if (!a.isReleased() && !a.isTimerExpired()) {
-                    assignments.computeIfAbsent(a.getQuestId(), k -> new ArrayList<>()).add(a);
-                }
+        slots.clear();
+        for (QuestAssignment a : loaded) {
+            if (a.isReleased() || a.isTimerExpired()) continue;
+            SlotState state = slots.computeIfAbsent(a.getQuestId(), k -> new SlotState());
+            if (state.holders.putIfAbsent(a.getPlayerUuid(), a) == null) {
+                state.occupied.incrementAndGet();
             }
-            LOGGER.info("QuestAvailabilityManager loaded {} active assignments.", loaded.size());
-        } finally {
-            lock.writeLock().unlock();
         }
+        LOGGER.info("QuestAvailabilityManager loaded {} active assignments.", loaded.size());
     }
 
     // ═════════════════════════════════════════════════════════════
@@ -66,7 +99,7 @@ public class QuestAvailabilityManager {
     // ═════════════════════════════════════════════════════════════
 
     /**
-     * Проверяет, доступен ли квест для принятия.
+     * Проверяет, доступен ли квест для принятия. Только чтение, без блокировок.
      *
      * @param quest     квест
      * @param playerUuid UUID игрока (для проверки что не дублирует)
@@ -75,48 +108,29 @@ public class QuestAvailabilityManager {
     public boolean isAvailable(@Nonnull Quest quest, @Nonnull UUID playerUuid) {
         if (quest.getAccessType() == QuestAccessType.INDIVIDUAL) return true;
 
-        lock.readLock().lock();
-        try {
-            List<QuestAssignment> questAssignments = assignments.get(quest.getQuestId());
-            if (questAssignments == null || questAssignments.isEmpty()) return true;
+        SlotState state = slots.get(quest.getQuestId());
+        if (state == null) return true;
 
-            // Проверяем, не взял ли уже этот игрок
-            for (QuestAssignment a : questAssignments) {
-                if (a.getPlayerUuid().equals(playerUuid) && !a.isReleased()) {
-                    return false; // уже назначен
-                }
-            }
-
-            // Чистим истёкшие
-            long activeCount = questAssignments.stream()
-                    .filter(a -> !a.isReleased() && !a.isTimerExpired())
-                    .count();
+        // Проверяем, не взял ли уже этот игрок
+        QuestAssignment own = state.holders.get(playerUuid);
+        if (own != null && !own.isReleased()) return false;
 
-            if (quest.getAccessType() == QuestAccessType.GLOBAL_UNIQUE) {
-                return activeCount == 0;
-            }
+        // Слот зарезервирован за игроком из очереди
+        if (state.hasValidClaim(playerUuid)) return true;
 
-            // LIMITED_SLOTS
-            return activeCount < quest.getMaxSlots();
-        } finally {
-            lock.readLock().unlock();
-        }
+        // Истёкшее по таймеру назначение держит слот, пока TimerService
+        // не провалит квест через трекер (с учётом grace-периода релога)
+        return state.occupied.get() < capacityOf(quest);
     }
 
     /**
-     * Возвращает количество занятых слотов для квеста.
+     * Возвращает количество занятых слотов для квеста: держатели плюс
+     * действующие резервы за игроками из очереди — такой слот уже не
+     * свободен для остальных.
      */
     public int getOccupiedSlots(@Nonnull UUID questId) {
-        lock.readLock().lock();
-        try {
-            List<QuestAssignment> questAssignments = assignments.get(questId);
-            if (questAssignments == null) return 0;
-            return (int) questAssignments.stream()
-                    .filter(a -> !a.isReleased() && !a.isTimerExpired())
-                    .count();
-        } finally {
-            lock.readLock().unlock();
-        }
+        SlotState state = slots.get(questId);
+        return state != null ? state.activeCount() + state.activeClaimCount() : 0;
     }
 
     // ═════════════════════════════════════════════════════════════
@@ -124,7 +138,9 @@ public class QuestAvailabilityManager {
     // ═════════════════════════════════════════════════════════════
 
     /**
-     * Пытается занять слот для квеста. Атомарная операция.
+     * Пытается занять слот для квеста. Атомарная lock-free операция:
+     * слот резервируется CAS-инкрементом счётчика, затем игрок
+     * добавляется в множество держателей.
      *
      * @return назначение при успехе, null при неудаче (слоты заняты)
      */
@@ -136,52 +152,167 @@ public class QuestAvailabilityManager {
             return QuestAssignment.create(quest.getQuestId(), playerUuid, quest.getDurationMinutes());
         }
 
-        lock.writeLock().lock();
-        try {
-            if (!isAvailableUnlocked(quest, playerUuid)) {
-                LOGGER.debug("Slot unavailable for quest {} (player {})", quest.getShortId(), playerUuid);
-                return null;
-            }
-
-            QuestAssignment assignment = QuestAssignment.create(
-                    quest.getQuestId(), playerUuid, quest.getDurationMinutes());
+        int capacity = capacityOf(quest);
+        SlotState state = reserve(quest.getQuestId(), playerUuid, capacity);
+        if (state == null) {
+            LOGGER.debug("Slot unavailable for quest {} (player {})", quest.getShortId(), playerUuid);
+            return null;
+        }
 
-            assignments.computeIfAbsent(quest.getQuestId(), k -> new ArrayList<>()).add(assignment);
-            storage.saveAssignment(assignment);
+        QuestAssignment assignment = QuestAssignment.create(
+                quest.getQuestId(), playerUuid, quest.getDurationMinutes());
 
-            LOGGER.info("Assigned quest {} to player {} (type={})",
-                    quest.getShortId(), playerUuid, quest.getAccessType());
-            return assignment;
-        } finally {
-            lock.writeLock().unlock();
+        if (state.holders.putIfAbsent(playerUuid, assignment) != null) {
+            // Параллельный accept того же игрока успел раньше — возвращаем слот
+            handOffSlot(quest.getQuestId(), state);
+            return null;
         }
+
+        storage.saveAssignment(assignment);
+
+        LOGGER.info("Assigned quest {} to player {} (type={})",
+                quest.getShortId(), playerUuid, quest.getAccessType());
+        return assignment;
     }
 
     /**
      * Освобождает слот квеста (при завершении, провале или отмене).
      */
     public void releaseAssignment(@Nonnull UUID questId, @Nonnull UUID playerUuid) {
-        lock.writeLock().lock();
-        try {
-            List<QuestAssignment> questAssignments = assignments.get(questId);
-            if (questAssignments == null) return;
-
-            for (QuestAssignment a : questAssignments) {
-                if (a.getPlayerUuid().equals(playerUuid) && !a.isReleased()) {
-                    a.release();
-                    storage.saveAssignment(a);
-                    LOGGER.info("Released quest {} assignment for player {}", questId, playerUuid);
-                    break;
-                }
+        SlotState state = slots.get(questId);
+        if (state == null) return;
+
+        QuestAssignment a = state.holders.remove(playerUuid);
+        if (a == null) return;
+
+        if (!a.isReleased()) {
+            a.release();
+            storage.saveAssignment(a);
+            LOGGER.info("Released quest {} assignment for player {}", questId, playerUuid);
+        }
+
+        handOffSlot(questId, state);
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    //  WAITLIST
+    // ═════════════════════════════════════════════════════════════
+
+    /**
+     * Ставит игрока в очередь ожидания заполненного квеста.
+     *
+     * @return позиция в очереди (с 1), или 0 если очередь выключена или заполнена
+     */
+    public int joinWaitlist(@Nonnull Quest quest, @Nonnull UUID playerUuid) {
+        if (quest.getAccessType() == QuestAccessType.INDIVIDUAL) return 0;
+        int maxSize = maxWaitlistSize;
+        if (maxSize <= 0) return 0;
+
+        while (true) {
+            SlotState state = slots.computeIfAbsent(quest.getQuestId(), k -> new SlotState());
+            synchronized (state.waitlist) {
+                if (state.occupied.get() == SlotState.RETIRED) continue;
+
+                int position = state.positionOf(playerUuid);
+                if (position > 0) return position;
+                if (state.waitlist.size() >= maxSize) return 0;
+
+                state.waitlist.addLast(playerUuid);
+                LOGGER.debug("Player {} joined waitlist of quest {} (#{})",
+                        playerUuid, quest.getShortId(), state.waitlist.size());
+                return state.waitlist.size();
             }
+        }
+    }
 
-            // Чистим полностью released записи
-            questAssignments.removeIf(QuestAssignment::isReleased);
-            if (questAssignments.isEmpty()) {
-                assignments.remove(questId);
+    /**
+     * Убирает игрока из очереди ожидания квеста. Зарезервированный за ним
+     * слот сразу передаётся следующему в очереди.
+     *
+     * @return true, если игрок стоял в очереди или держал резерв
+     */
+    public boolean leaveWaitlist(@Nonnull UUID questId, @Nonnull UUID playerUuid) {
+        SlotState state = slots.get(questId);
+        if (state == null) return false;
+        boolean removed;
+        synchronized (state.waitlist) {
+            removed = state.waitlist.remove(playerUuid);
+        }
+        if (state.claims.remove(playerUuid) != null) {
+            handOffSlot(questId, state);
+            return true;
+        }
+        if (removed) retireIfIdle(questId, state);
+        return removed;
+    }
+
+    /**
+     * Убирает вышедшего игрока из всех очередей ожидания. Зарезервированный
+     * за ним слот сразу передаётся следующему в очереди, не дожидаясь
+     * окончания окна подтверждения.
+     */
+    public void onPlayerLeave(@Nonnull UUID playerUuid) {
+        for (Map.Entry<UUID, SlotState> entry : slots.entrySet()) {
+            UUID questId = entry.getKey();
+            SlotState state = entry.getValue();
+            boolean removed;
+            synchronized (state.waitlist) {
+                removed = state.waitlist.remove(playerUuid);
+            }
+            if (state.claims.remove(playerUuid) != null) {
+                handOffSlot(questId, state);
+            } else if (removed) {
+                retireIfIdle(questId, state);
+            }
+        }
+    }
+
+    /**
+     * Сбрасывает очередь ожидания и резервы квеста, который больше не
+     * предлагается (смена пула). Держатели слотов не затрагиваются.
+     */
+    public void clearWaitlist(@Nonnull UUID questId) {
+        SlotState state = slots.get(questId);
+        if (state == null) return;
+        synchronized (state.waitlist) {
+            state.waitlist.clear();
+        }
+        for (UUID claimant : state.claims.keySet()) {
+            if (state.claims.remove(claimant) != null) {
+                state.occupied.decrementAndGet();
+            }
+        }
+        retireIfIdle(questId, state);
+    }
+
+    /**
+     * Позиция игрока в очереди ожидания квеста.
+     *
+     * @return позиция (с 1), или 0 если игрок не в очереди
+     */
+    public int getWaitlistPosition(@Nonnull UUID questId, @Nonnull UUID playerUuid) {
+        SlotState state = slots.get(questId);
+        if (state == null) return 0;
+        synchronized (state.waitlist) {
+            return state.positionOf(playerUuid);
+        }
+    }
+
+    /**
+     * Снимает просроченные резервы слотов и передаёт их следующим в очереди.
+     * Вызывается периодически из планировщика.
+     */
+    public void expireClaims() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<UUID, SlotState> entry : slots.entrySet()) {
+            SlotState state = entry.getValue();
+            for (Map.Entry<UUID, Long> claim : state.claims.entrySet()) {
+                if (claim.getValue() > now) continue;
+                if (state.claims.remove(claim.getKey(), claim.getValue())) {
+                    LOGGER.debug("Slot claim of quest {} expired for player {}", entry.getKey(), claim.getKey());
+                    handOffSlot(entry.getKey(), state);
+                }
             }
-        } finally {
-            lock.writeLock().unlock();
         }
     }
 
@@ -197,17 +328,12 @@ public class QuestAvailabilityManager {
     @Nonnull
     public List<QuestAssignment> getExpiredAssignments() {
         List<QuestAssignment> expired = new ArrayList<>();
-        lock.readLock().lock();
-        try {
-            for (List<QuestAssignment> questAssignments : assignments.values()) {
-                for (QuestAssignment a : questAssignments) {
-                    if (!a.isReleased() && a.isTimerExpired()) {
-                        expired.add(a);
-                    }
+        for (SlotState state : slots.values()) {
+            for (QuestAssignment a : state.holders.values()) {
+                if (!a.isReleased() && a.isTimerExpired()) {
+                    expired.add(a);
                 }
             }
-        } finally {
-            lock.readLock().unlock();
         }
         return expired;
     }
@@ -217,39 +343,100 @@ public class QuestAvailabilityManager {
      */
     @Nullable
     public QuestAssignment getAssignment(@Nonnull UUID questId, @Nonnull UUID playerUuid) {
-        lock.readLock().lock();
-        try {
-            List<QuestAssignment> questAssignments = assignments.get(questId);
-            if (questAssignments == null) return null;
-            return questAssignments.stream()
-                    .filter(a -> a.getPlayerUuid().equals(playerUuid) && !a.isReleased())
-                    .findFirst()
-                    .orElse(null);
-        } finally {
-            lock.readLock().unlock();
-        }
+        SlotState state = slots.get(questId);
+        if (state == null) return null;
+        QuestAssignment a = state.holders.get(playerUuid);
+        return a != null && !a.isReleased() ? a : null;
     }
 
     // ═════════════════════════════════════════════════════════════
-    //  INTERNAL (unguarded, call under write lock)
+    //  INTERNAL
     // ═════════════════════════════════════════════════════════════
 
-    private boolean isAvailableUnlocked(@Nonnull Quest quest, @Nonnull UUID playerUuid) {
-        List<QuestAssignment> questAssignments = assignments.get(quest.getQuestId());
-        if (questAssignments == null || questAssignments.isEmpty()) return true;
+    /**
+     * CAS-резервирование слота.
+     *
+     * @return состояние квеста, в котором зарезервирован слот, или null
+     */
+    @Nullable
+    private SlotState reserve(@Nonnull UUID questId, @Nonnull UUID playerUuid, int capacity) {
+        while (true) {
+            SlotState state = slots.computeIfAbsent(questId, k -> new SlotState());
+
+            QuestAssignment own = state.holders.get(playerUuid);
+            if (own != null && !own.isReleased()) return null;
+
+            // Зарезервированный из очереди слот уже учтён в счётчике
+            Long claimDeadline = state.claims.remove(playerUuid);
+            if (claimDeadline != null) {
+                if (claimDeadline > System.currentTimeMillis()) return state;
+                handOffSlot(questId, state);
+            }
+
+            int occupied = state.occupied.get();
+            if (occupied == SlotState.RETIRED) continue; // состояние выведено — берём свежее
+            if (occupied >= capacity) return null;
+            if (state.occupied.compareAndSet(occupied, occupied + 1)) return state;
+        }
+    }
+
+    /**
+     * Передаёт освободившийся слот следующему игроку в очереди,
+     * либо возвращает его в общий пул.
+     */
+    private void handOffSlot(@Nonnull UUID questId, @Nonnull SlotState state) {
+        if (offerToNextWaiter(questId, state)) return;
+        state.occupied.decrementAndGet();
+        retireIfIdle(questId, state);
+    }
 
-        for (QuestAssignment a : questAssignments) {
-            if (a.getPlayerUuid().equals(playerUuid) && !a.isReleased()) return false;
+    /**
+     * Резервирует слот (уже учтённый в счётчике) за первым игроком очереди.
+     *
+     * @return true если слот передан игроку из очереди
+     */
+    private boolean offerToNextWaiter(@Nonnull UUID questId, @Nonnull SlotState state) {
+        UUID next;
+        synchronized (state.waitlist) {
+            do {
+                next = state.waitlist.pollFirst();
+            } while (next != null && (state.holders.containsKey(next) || state.claims.containsKey(next)));
         }
+        if (next == null) return false;
 
-        long activeCount = questAssignments.stream()
-                .filter(a -> !a.isReleased() && !a.isTimerExpired())
-                .count();
+        state.claims.put(next, System.currentTimeMillis() + claimWindowMs);
+        LOGGER.info("Slot of quest {} offered to waiting player {}", questId, next);
 
+        BiConsumer<UUID, UUID> callback = onSlotOffered;
+        if (callback != null) {
+            try {
+                callback.accept(questId, next);
+            } catch (Exception e) {
+                LOGGER.error("Error notifying slot offer", e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Убирает пустое состояние квеста из карты. Счётчик атомарно переводится
+     * из 0 в {@link SlotState#RETIRED}, поэтому параллельный tryAssign не может
+     * зарезервировать слот в уже удалённом состоянии.
+     */
+    private void retireIfIdle(@Nonnull UUID questId, @Nonnull SlotState state) {
+        synchronized (state.waitlist) {
+            if (!state.waitlist.isEmpty()) return;
+            if (state.occupied.compareAndSet(0, SlotState.RETIRED)) {
+                slots.remove(questId, state);
+            }
+        }
+    }
+
+    private static int capacityOf(@Nonnull Quest quest) {
         return switch (quest.getAccessType()) {
-            case GLOBAL_UNIQUE -> activeCount == 0;
-            case LIMITED_SLOTS -> activeCount < quest.getMaxSlots();
-            default -> true;
+            case GLOBAL_UNIQUE -> 1;
+            case LIMITED_SLOTS -> quest.getMaxSlots();
+            default -> Integer.MAX_VALUE;
         };
     }
 
@@ -257,11 +444,61 @@ public class QuestAvailabilityManager {
      * Очищает все данные.
      */
     public void shutdown() {
-        lock.writeLock().lock();
-        try {
-            assignments.clear();
-        } finally {
-            lock.writeLock().unlock();
+        slots.clear();
+    }
+
+    /**
+     * Состояние слотов одного квеста.
+     *
+     * <p>{@code occupied} учитывает зарезервированные слоты и всегда
+     * не меньше размера {@code holders} плюс {@code claims}: инкремент
+     * выполняется до добавления держателя, декремент — после удаления.
+     * Очередь ожидания защищена собственным монитором.</p>
+     */
+    private static final class SlotState {
+
+        /** Значение счётчика для состояния, удалённого из карты. */
+        static final int RETIRED = Integer.MIN_VALUE;
+
+        final AtomicInteger occupied = new AtomicInteger();
+        final Map<UUID, QuestAssignment> holders = new ConcurrentHashMap<>();
+
+        /** Слоты, зарезервированные за игроками из очереди: playerUuid → дедлайн. */
+        final Map<UUID, Long> claims = new ConcurrentHashMap<>();
+
+        /** FIFO-очередь ожидания (guarded by itself). */
+        final Deque<UUID> waitlist = new ArrayDeque<>();
+
+        boolean hasValidClaim(@Nonnull UUID playerUuid) {
+            Long deadline = claims.get(playerUuid);
+            return deadline != null && deadline > System.currentTimeMillis();
+        }
+
+        /** Позиция в очереди (с 1), 0 если нет. Вызывать под монитором waitlist. */
+        int positionOf(@Nonnull UUID playerUuid) {
+            int position = 1;
+            for (UUID waiting : waitlist) {
+                if (waiting.equals(playerUuid)) return position;
+                position++;
+            }
+            return 0;
+        }
+
+        int activeCount() {
+            int count = 0;
+            for (QuestAssignment a : holders.values()) {
+                if (!a.isReleased()) count++;
+            }
+            return count;
+        }
+
+        int activeClaimCount() {
+            long now = System.currentTimeMillis();
+            int count = 0;
+            for (Long deadline : claims.values()) {
+                if (deadline > now) count++;
+            }
+            return count;
         }
     }
 }
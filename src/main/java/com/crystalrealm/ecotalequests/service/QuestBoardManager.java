@@ -15,6 +15,11 @@ import java.util.concurrent.ConcurrentHashMap;
  * <p>Управляет размещением, удалением и поиском досок квестов.
  * Координаты досок хранятся персистентно.</p>
  *
+ * <p>Позиционные запросы идут через пространственный индекс на каждый мир
+ * ({@link BoardSpatialIndex}) с целочисленными ключами: доска в точке и
+ * доски чанка — O(1), ближайшая доска и поиск в радиусе — по ячейкам
+ * сетки вокруг точки, без перебора всех досок сервера.</p>
+ *
  * <p>Права доступа:
  * <ul>
  *   <li>{@code ecotale.quests.board.place} — размещение доски</li>
@@ -30,8 +35,8 @@ public class QuestBoardManager {
 
     private final QuestStorage storage;
 
-    /** Все доски: positionKey → QuestBoardLocation */
-    private final Map<String, QuestBoardLocation> boards = new ConcurrentHashMap<>();
+    /** Пространственные индексы: worldName → индекс досок мира */
+    private final Map<String, BoardSpatialIndex> worlds = new ConcurrentHashMap<>();
 
     /** Индекс по boardId */
     private final Map<UUID, QuestBoardLocation> boardsById = new ConcurrentHashMap<>();
@@ -49,13 +54,16 @@ public class QuestBoardManager {
      */
     public void initialize() {
         List<QuestBoardLocation> loaded = storage.loadBoardLocations();
-        boards.clear();
+        worlds.clear();
         boardsById.clear();
         for (QuestBoardLocation board : loaded) {
-            boards.put(board.positionKey(), board);
-            boardsById.put(board.getBoardId(), board);
+            if (worldIndex(board.getWorldName()).add(board)) {
+                boardsById.put(board.getBoardId(), board);
+            } else {
+                LOGGER.warn("Duplicate board position ignored: {}", board);
+            }
         }
-        LOGGER.info("QuestBoardManager loaded {} boards.", boards.size());
+        LOGGER.info("QuestBoardManager loaded {} boards in {} worlds.", boardsById.size(), worlds.size());
     }
 
     // ═════════════════════════════════════════════════════════════
@@ -72,14 +80,15 @@ public class QuestBoardManager {
                                   int x, int y, int z,
                                   @Nonnull QuestBoardLocation.BoardType type,
                                   @Nonnull UUID placedBy) {
-        String key = worldName + ":" + x + ":" + y + ":" + z;
-
-        if (boards.containsKey(key)) {
+        BoardSpatialIndex index = worldIndex(worldName);
+        if (index.get(x, y, z) != null) {
             return PlaceResult.ALREADY_EXISTS;
         }
 
         QuestBoardLocation board = QuestBoardLocation.create(worldName, x, y, z, type, placedBy);
-        boards.put(board.positionKey(), board);
+        if (!index.add(board)) {
+            return PlaceResult.ALREADY_EXISTS;
+        }
         boardsById.put(board.getBoardId(), board);
         storage.saveBoardLocation(board);
 
@@ -93,14 +102,14 @@ public class QuestBoardManager {
      * @return true если доска была удалена
      */
     public boolean removeBoard(@Nonnull String worldName, int x, int y, int z) {
-        String key = worldName + ":" + x + ":" + y + ":" + z;
-        QuestBoardLocation board = boards.remove(key);
+        BoardSpatialIndex index = worlds.get(worldName);
+        QuestBoardLocation board = index != null ? index.remove(x, y, z) : null;
         if (board == null) return false;
 
         boardsById.remove(board.getBoardId());
         storage.removeBoardLocation(board.getBoardId());
 
-        LOGGER.info("Board removed at {}", key);
+        LOGGER.info("Board removed at {}", board.positionKey());
         return true;
     }
 
@@ -111,7 +120,8 @@ public class QuestBoardManager {
         QuestBoardLocation board = boardsById.remove(boardId);
         if (board == null) return false;
 
-        boards.remove(board.positionKey());
+        BoardSpatialIndex index = worlds.get(board.getWorldName());
+        if (index != null) index.remove(board.getX(), board.getY(), board.getZ());
         storage.removeBoardLocation(boardId);
 
         LOGGER.info("Board removed: {}", boardId);
@@ -127,8 +137,8 @@ public class QuestBoardManager {
      */
     @Nullable
     public QuestBoardLocation getBoardAt(@Nonnull String worldName, int x, int y, int z) {
-        String key = worldName + ":" + x + ":" + y + ":" + z;
-        return boards.get(key);
+        BoardSpatialIndex index = worlds.get(worldName);
+        return index != null ? index.get(x, y, z) : null;
     }
 
     /**
@@ -144,14 +154,14 @@ public class QuestBoardManager {
      */
     @Nonnull
     public Collection<QuestBoardLocation> getAllBoards() {
-        return Collections.unmodifiableCollection(boards.values());
+        return Collections.unmodifiableCollection(boardsById.values());
     }
 
     /**
      * Количество досок.
      */
     public int getBoardCount() {
-        return boards.size();
+        return boardsById.size();
     }
 
     /**
@@ -168,21 +178,35 @@ public class QuestBoardManager {
     public QuestBoardLocation getNearestBoard(@Nonnull String worldName,
                                               int x, int y, int z,
                                               double maxDistance) {
-        QuestBoardLocation nearest = null;
-        double minDist = maxDistance * maxDistance;
-
-        for (QuestBoardLocation board : boards.values()) {
-            if (!board.getWorldName().equals(worldName)) continue;
-            double dx = board.getX() - x;
-            double dy = board.getY() - y;
-            double dz = board.getZ() - z;
-            double distSq = dx * dx + dy * dy + dz * dz;
-            if (distSq < minDist) {
-                minDist = distSq;
-                nearest = board;
-            }
-        }
-        return nearest;
+        BoardSpatialIndex index = worlds.get(worldName);
+        return index != null ? index.nearest(x, y, z, maxDistance) : null;
+    }
+
+    /**
+     * Возвращает все доски мира в пределах радиуса (включительно).
+     */
+    @Nonnull
+    public List<QuestBoardLocation> getBoardsWithin(@Nonnull String worldName,
+                                                    int x, int y, int z,
+                                                    double radius) {
+        BoardSpatialIndex index = worlds.get(worldName);
+        return index != null ? index.within(x, y, z, radius) : List.of();
+    }
+
+    /**
+     * Возвращает доски в колонке чанка, содержащей блок (x, z).
+     */
+    @Nonnull
+    public List<QuestBoardLocation> getBoardsInChunk(@Nonnull String worldName, int x, int z) {
+        BoardSpatialIndex index = worlds.get(worldName);
+        return index != null
+                ? index.inCell(x >> BoardSpatialIndex.CELL_SHIFT, z >> BoardSpatialIndex.CELL_SHIFT)
+                : List.of();
+    }
+
+    @Nonnull
+    private BoardSpatialIndex worldIndex(@Nonnull String worldName) {
+        return worlds.computeIfAbsent(worldName, w -> new BoardSpatialIndex());
     }
 
     // ═════════════════════════════════════════════════════════════
@@ -190,7 +214,7 @@ public class QuestBoardManager {
     // ═════════════════════════════════════════════════════════════
 
     public void shutdown() {
-        boards.clear();
+        worlds.clear();
         boardsById.clear();
     }
 
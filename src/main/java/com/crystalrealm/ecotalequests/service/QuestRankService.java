@@ -13,6 +13,7 @@ import javax.annotation.Nonnull;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * Сервис ранговой системы квестовой гильдии.
@@ -25,18 +26,21 @@ public class QuestRankService {
     private static final PluginLogger LOGGER = PluginLogger.forEnclosingClass();
 
     private final QuestStorage storage;
-    private final QuestsConfig config;
+    private final Supplier<QuestsConfig> config;
     private final LangManager langManager;
+    private final LeaderboardService leaderboard;
 
     /** Кеш ранговых данных: playerUuid → PlayerRankData */
     private final Map<UUID, PlayerRankData> rankCache = new ConcurrentHashMap<>();
 
     public QuestRankService(@Nonnull QuestStorage storage,
-                            @Nonnull QuestsConfig config,
-                            @Nonnull LangManager langManager) {
+                            @Nonnull Supplier<QuestsConfig> config,
+                            @Nonnull LangManager langManager,
+                            @Nonnull LeaderboardService leaderboard) {
         this.storage = storage;
         this.config = config;
         this.langManager = langManager;
+        this.leaderboard = leaderboard;
     }
 
     // ═════════════════════════════════════════════════════════════
@@ -103,6 +107,7 @@ public class QuestRankService {
             String questRankId = (required != null) ? required.name() : "E";
             data.incrementCompletedForRank(questRankId);
             storage.saveRankData(data);
+            leaderboard.update(data);
         }
 
         if (rankChanged) {
@@ -122,7 +127,7 @@ public class QuestRankService {
      */
     public boolean penalizeRankPoints(@Nonnull UUID playerUuid, int penaltyPoints) {
         if (penaltyPoints <= 0) return false;
-        if (!config.getRanks().isPenalizeOnFail()) return false;
+        if (!config.get().getRanks().isPenalizeOnFail()) return false;
 
         PlayerRankData data = getOrCreateRankData(playerUuid);
         QuestRank oldRank = data.getRank();
@@ -131,6 +136,7 @@ public class QuestRankService {
         synchronized (data) {
             rankChanged = data.penalize(penaltyPoints);
             storage.saveRankData(data);
+            leaderboard.update(data);
         }
 
         if (rankChanged) {
@@ -148,19 +154,17 @@ public class QuestRankService {
     // ═════════════════════════════════════════════════════════════
 
     private void notifyRankUp(@Nonnull UUID playerUuid, @Nonnull QuestRank oldRank, @Nonnull QuestRank newRank) {
-        String msg = langManager.getForPlayer(playerUuid, "rank.up",
+        MessageUtil.sendTemplate(playerUuid, langManager.getTemplateForPlayer(playerUuid, "rank.up"),
                 "old_rank", oldRank.name(),
                 "new_rank", newRank.name(),
                 "color", newRank.getColor());
-        MessageUtil.sendMessage(playerUuid, msg);
     }
 
     private void notifyRankDown(@Nonnull UUID playerUuid, @Nonnull QuestRank oldRank, @Nonnull QuestRank newRank) {
-        String msg = langManager.getForPlayer(playerUuid, "rank.down",
+        MessageUtil.sendTemplate(playerUuid, langManager.getTemplateForPlayer(playerUuid, "rank.down"),
                 "old_rank", oldRank.name(),
                 "new_rank", newRank.name(),
                 "color", newRank.getColor());
-        MessageUtil.sendMessage(playerUuid, msg);
     }
 
     // ═════════════════════════════════════════════════════════════
@@ -28,11 +28,20 @@ public class TimerService {
     private BiConsumer<UUID, UUID> onTimerExpired;
 
     /** Grace-период после релога (мс). По умолчанию 60 секунд. */
-    private long relogGracePeriodMs = 60_000L;
+    private volatile long relogGracePeriodMs = 60_000L;
+
+    /**
+     * Вторичный индекс: playerUuid → ключи его таймеров.
+     * Позволяет обрабатывать таймеры одного игрока за O(own timers).
+     */
+    private final Map<UUID, Set<String>> timersByPlayer = new ConcurrentHashMap<>();
 
     /** Игроки в grace-периоде: playerUuid → время релога */
     private final Map<UUID, Long> relogGrace = new ConcurrentHashMap<>();
 
+    /** Игроки с приостановленными таймерами: playerUuid → время паузы */
+    private final Map<UUID, Long> pausedPlayers = new ConcurrentHashMap<>();
+
     public TimerService() {}
 
     /**
@@ -59,7 +68,7 @@ public class TimerService {
     public void registerTimer(@Nonnull QuestAssignment assignment) {
         if (assignment.getExpiresAt() == Long.MAX_VALUE) return; // без таймера
         String key = timerKey(assignment.getQuestId(), assignment.getPlayerUuid());
-        activeTimers.put(key, assignment);
+        putTimer(key, assignment);
         LOGGER.debug("Timer registered: {} (expires in {} min)",
                 key, assignment.getRemainingMinutes());
     }
@@ -77,7 +86,7 @@ public class TimerService {
             if (a.isReleased() || a.isTimerExpired()) continue;
             if (a.getExpiresAt() == Long.MAX_VALUE) continue;
             String key = timerKey(a.getQuestId(), a.getPlayerUuid());
-            activeTimers.put(key, a);
+            putTimer(key, a);
             restored++;
         }
         if (restored > 0) {
@@ -90,8 +99,7 @@ public class TimerService {
      * Удаляет таймер (при успешном завершении, отмене).
      */
     public void removeTimer(@Nonnull UUID questId, @Nonnull UUID playerUuid) {
-        String key = timerKey(questId, playerUuid);
-        activeTimers.remove(key);
+        removeTimer(timerKey(questId, playerUuid));
     }
 
     /**
@@ -111,8 +119,10 @@ public class TimerService {
                 continue;
             }
 
+            UUID playerUuid = assignment.getPlayerUuid();
+            if (pausedPlayers.containsKey(playerUuid)) continue;
+
             if (assignment.isTimerExpired()) {
-                UUID playerUuid = assignment.getPlayerUuid();
 
                 // Проверяем grace-период для релога
                 Long graceStart = relogGrace.get(playerUuid);
@@ -134,7 +144,7 @@ public class TimerService {
             }
         }
 
-        expired.forEach(activeTimers::remove);
+        expired.forEach(this::removeTimer);
     }
 
     // ═════════════════════════════════════════════════════════════
@@ -143,11 +153,16 @@ public class TimerService {
 
     /**
      * Записывает время начала grace-периода при отключении игрока.
+     * Проверяет только таймеры самого игрока через вторичный индекс.
      */
     public void onPlayerDisconnect(@Nonnull UUID playerUuid) {
-        // Проверяем, есть ли активные таймеры для этого игрока
-        boolean hasTimers = activeTimers.values().stream()
-                .anyMatch(a -> a.getPlayerUuid().equals(playerUuid) && !a.isReleased());
+        boolean hasTimers = false;
+        for (QuestAssignment a : playerTimers(playerUuid)) {
+            if (!a.isReleased()) {
+                hasTimers = true;
+                break;
+            }
+        }
         if (hasTimers) {
             relogGrace.put(playerUuid, System.currentTimeMillis());
             LOGGER.debug("Relog grace started for player {}", playerUuid);
@@ -161,6 +176,54 @@ public class TimerService {
         relogGrace.remove(playerUuid);
     }
 
+    // ═════════════════════════════════════════════════════════════
+    //  PER-PLAYER BATCH OPERATIONS
+    // ═════════════════════════════════════════════════════════════
+
+    /**
+     * Приостанавливает все таймеры игрока. Пока пауза активна,
+     * {@link #tick()} не проваливает его квесты.
+     *
+     * @return количество затронутых таймеров
+     */
+    public int pauseTimers(@Nonnull UUID playerUuid) {
+        List<QuestAssignment> own = playerTimers(playerUuid);
+        if (own.isEmpty()) return 0;
+        pausedPlayers.putIfAbsent(playerUuid, System.currentTimeMillis());
+        LOGGER.debug("Paused {} timers for player {}", own.size(), playerUuid);
+        return own.size();
+    }
+
+    /**
+     * Снимает паузу и сдвигает сроки таймеров игрока на длительность паузы.
+     *
+     * @return количество затронутых таймеров
+     */
+    public int resumeTimers(@Nonnull UUID playerUuid) {
+        Long pausedAt = pausedPlayers.remove(playerUuid);
+        if (pausedAt == null) return 0;
+        return rescheduleTimers(playerUuid, System.currentTimeMillis() - pausedAt);
+    }
+
+    /**
+     * Переносит сроки всех таймеров игрока на {@code deltaMs}.
+     *
+     * @param deltaMs сдвиг в миллисекундах (отрицательный — сократить)
+     * @return количество затронутых таймеров
+     */
+    public int rescheduleTimers(@Nonnull UUID playerUuid, long deltaMs) {
+        int shifted = 0;
+        for (QuestAssignment a : playerTimers(playerUuid)) {
+            if (a.isReleased()) continue;
+            a.shiftExpiry(deltaMs);
+            shifted++;
+        }
+        if (shifted > 0) {
+            LOGGER.debug("Rescheduled {} timers for player {} by {} ms", shifted, playerUuid, deltaMs);
+        }
+        return shifted;
+    }
+
     // ═════════════════════════════════════════════════════════════
     //  QUERIES
     // ═════════════════════════════════════════════════════════════
@@ -204,13 +267,46 @@ public class TimerService {
 
     public void shutdown() {
         activeTimers.clear();
+        timersByPlayer.clear();
         relogGrace.clear();
+        pausedPlayers.clear();
     }
 
     // ═════════════════════════════════════════════════════════════
     //  INTERNAL
     // ═════════════════════════════════════════════════════════════
 
+    private void putTimer(@Nonnull String key, @Nonnull QuestAssignment assignment) {
+        activeTimers.put(key, assignment);
+        timersByPlayer.compute(assignment.getPlayerUuid(), (uuid, keys) -> {
+            if (keys == null) keys = ConcurrentHashMap.newKeySet();
+            keys.add(key);
+            return keys;
+        });
+    }
+
+    private void removeTimer(@Nonnull String key) {
+        QuestAssignment removed = activeTimers.remove(key);
+        if (removed == null) return;
+        timersByPlayer.computeIfPresent(removed.getPlayerUuid(), (uuid, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    /** Таймеры конкретного игрока через вторичный индекс. */
+    @Nonnull
+    private List<QuestAssignment> playerTimers(@Nonnull UUID playerUuid) {
+        Set<String> keys = timersByPlayer.get(playerUuid);
+        if (keys == null || keys.isEmpty()) return List.of();
+        List<QuestAssignment> result = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            QuestAssignment a = activeTimers.get(key);
+            if (a != null) result.add(a);
+        }
+        return result;
+    }
+
     private static String timerKey(@Nonnull UUID questId, @Nonnull UUID playerUuid) {
         return questId.toString() + ":" + playerUuid.toString();
     }
@@ -9,11 +9,18 @@ import javax.annotation.Nonnull;
 import java.io.*;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * JSON-реализация хранилища квестов.
@@ -24,6 +31,11 @@ import java.util.concurrent.ConcurrentHashMap;
  *   <li>{@code quests/weekly_pool.json} — текущий пул недельных квестов</li>
  *   <li>{@code players/<uuid>.json} — прогресс каждого игрока</li>
  * </ul>
+ *
+ * <p>Назначения квестов меняются параллельно для разных квестов, поэтому
+ * хранятся в конкурентной карте без общей блокировки; файл
+ * {@code assignments.json} перезаписывается отложенно — одним фоновым
+ * сбросом на серию изменений ({@link #ASSIGNMENT_FLUSH_DELAY_MS}).</p>
  */
 public class JsonQuestStorage implements QuestStorage {
 
@@ -33,6 +45,9 @@ public class JsonQuestStorage implements QuestStorage {
             .disableHtmlEscaping()
             .create();
 
+    /** Задержка фонового сброса assignments.json после изменения (мс). */
+    private static final long ASSIGNMENT_FLUSH_DELAY_MS = 1_000L;
+
     private final Path dataDirectory;
     private final Path questsDir;
     private final Path playersDir;
@@ -57,8 +72,19 @@ public class JsonQuestStorage implements QuestStorage {
     /** Доски квестов */
     private final List<QuestBoardLocation> boardLocations = Collections.synchronizedList(new ArrayList<>());
 
-    /** Назначения квестов */
-    private final List<QuestAssignment> questAssignments = Collections.synchronizedList(new ArrayList<>());
+    /** Назначения квестов: (questId, playerUuid) → назначение */
+    private final Map<AssignmentKey, QuestAssignment> questAssignments = new ConcurrentHashMap<>();
+    /** Есть несохранённые изменения назначений. */
+    private final AtomicBoolean assignmentsDirty = new AtomicBoolean();
+    /** Фоновый сброс уже запланирован. */
+    private final AtomicBoolean assignmentFlushScheduled = new AtomicBoolean();
+    /** Сериализует запись assignments.json (но не изменения в памяти). */
+    private final Object assignmentsFileLock = new Object();
+    private final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "EcoTaleQuests-StorageFlush");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     public JsonQuestStorage(@Nonnull Path dataDirectory) {
         this.dataDirectory = dataDirectory;
@@ -114,6 +140,7 @@ public class JsonQuestStorage implements QuestStorage {
 
     @Override
     public void shutdown() {
+        flushExecutor.shutdownNow();
         save();
         questCache.clear();
         playerCache.clear();
@@ -270,21 +297,38 @@ public class JsonQuestStorage implements QuestStorage {
     @Override
     @Nonnull
     public List<QuestAssignment> loadActiveAssignments() {
-        return questAssignments.stream()
+        return questAssignments.values().stream()
                 .filter(a -> !a.isReleased() && !a.isTimerExpired())
                 .toList();
     }
 
     @Override
     public void saveAssignment(@Nonnull QuestAssignment assignment) {
-        // Remove existing entry for same quest+player
-        questAssignments.removeIf(a ->
-                a.getQuestId().equals(assignment.getQuestId())
-                && a.getPlayerUuid().equals(assignment.getPlayerUuid()));
-        if (!assignment.isReleased()) {
-            questAssignments.add(assignment);
+        // Вызывается параллельно для разных квестов: изменение — одна
+        // операция над конкурентной картой, запись файла — отложенно
+        AssignmentKey key = new AssignmentKey(assignment.getQuestId(), assignment.getPlayerUuid());
+        if (assignment.isReleased()) {
+            // Не удаляем более новое назначение того же игрока, записанное параллельно
+            questAssignments.computeIfPresent(key, (k, current) ->
+                    current == assignment || current.isReleased() ? null : current);
+        } else {
+            questAssignments.put(key, assignment);
+        }
+        assignmentsDirty.set(true);
+        scheduleAssignmentFlush();
+    }
+
+    private void scheduleAssignmentFlush() {
+        if (!assignmentFlushScheduled.compareAndSet(false, true)) return;
+        try {
+            flushExecutor.schedule(() -> {
+                assignmentFlushScheduled.set(false);
+                saveAssignmentsToDisk();
+            }, ASSIGNMENT_FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Остановлено — изменения запишет save() при выключении
+            assignmentFlushScheduled.set(false);
         }
-        saveAssignmentsToDisk();
     }
 
     // ═════════════════════════════════════════════════════════════
@@ -489,7 +533,8 @@ public class JsonQuestStorage implements QuestStorage {
                 for (AssignmentData ad : data) {
                     QuestAssignment assignment = ad.toAssignment();
                     if (assignment != null && !assignment.isTimerExpired()) {
-                        questAssignments.add(assignment);
+                        questAssignments.put(new AssignmentKey(assignment.getQuestId(),
+                                assignment.getPlayerUuid()), assignment);
                     }
                 }
             }
@@ -498,20 +543,38 @@ public class JsonQuestStorage implements QuestStorage {
         }
     }
 
+    /**
+     * Записывает назначения, если с прошлой записи были изменения.
+     * Снимок берётся без блокировки карты; файл пишется во временный
+     * и атомарно подменяется.
+     */
     private void saveAssignmentsToDisk() {
-        try {
-            List<AssignmentData> data = questAssignments.stream()
-                    .filter(a -> !a.isReleased())
-                    .map(AssignmentData::fromAssignment)
-                    .toList();
-            try (Writer writer = new OutputStreamWriter(Files.newOutputStream(assignmentsFile), StandardCharsets.UTF_8)) {
-                GSON.toJson(data, writer);
+        synchronized (assignmentsFileLock) {
+            if (!assignmentsDirty.getAndSet(false)) return;
+            try {
+                List<AssignmentData> data = questAssignments.values().stream()
+                        .filter(a -> !a.isReleased())
+                        .map(AssignmentData::fromAssignment)
+                        .toList();
+                Path tmp = assignmentsFile.resolveSibling(assignmentsFile.getFileName() + ".tmp");
+                try (Writer writer = new OutputStreamWriter(Files.newOutputStream(tmp), StandardCharsets.UTF_8)) {
+                    GSON.toJson(data, writer);
+                }
+                try {
+                    Files.move(tmp, assignmentsFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tmp, assignmentsFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                assignmentsDirty.set(true); // повторим при следующем сбросе
+                LOGGER.error("Failed to save assignments", e);
             }
-        } catch (IOException e) {
-            LOGGER.error("Failed to save assignments", e);
         }
     }
 
+    /** Ключ назначения в карте. */
+    private record AssignmentKey(UUID questId, UUID playerUuid) {}
+
     // ═════════════════════════════════════════════════════════════
     //  JSON MODELS (for Gson serialization)
     // ═════════════════════════════════════════════════════════════
@@ -4,6 +4,7 @@ import com.crystalrealm.ecotalequests.config.QuestsConfig;
 import com.crystalrealm.ecotalequests.generator.QuestGenerator;
 import com.crystalrealm.ecotalequests.model.*;
 import com.crystalrealm.ecotalequests.reward.QuestRewardCalculator;
+import com.crystalrealm.ecotalequests.service.NotificationScheduler;
 import com.crystalrealm.ecotalequests.service.QuestAvailabilityManager;
 import com.crystalrealm.ecotalequests.service.QuestRankService;
 import com.crystalrealm.ecotalequests.service.TimerService;
@@ -17,6 +18,7 @@ import javax.annotation.Nullable;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 /**
  * Центральный трекер квестов — управляет пулом, принятием, прогрессом
@@ -29,7 +31,10 @@ public class QuestTracker {
 
     private static final PluginLogger LOGGER = PluginLogger.forEnclosingClass();
 
-    private final QuestsConfig config;
+    /** Sampled INFO audit for quest accepts; every accept is logged at DEBUG. */
+    private static final PluginLogger.Sampler ACCEPT_AUDIT = LOGGER.sampler(5_000);
+
+    private final Supplier<QuestsConfig> config;
     private final QuestStorage storage;
     private final QuestGenerator generator;
     private final QuestRewardCalculator rewardCalculator;
@@ -41,7 +46,17 @@ public class QuestTracker {
     /** Кеш активных квестов игрока: playerUuid → list of active PlayerQuestData */
     private final Map<UUID, List<PlayerQuestData>> activeQuestCache = new ConcurrentHashMap<>();
 
-    public QuestTracker(@Nonnull QuestsConfig config,
+    /**
+     * Маска интересов игрока: бит {@code 1 << QuestType.ordinal()} установлен,
+     * если у игрока есть активный квест этого типа. Пересчитывается лениво,
+     * сбрасывается вместе с {@link #activeQuestCache}.
+     */
+    private final Map<UUID, Integer> interestMasks = new ConcurrentHashMap<>();
+
+    /** Планировщик HUD-уведомлений; без него уведомления отправляются сразу. */
+    private volatile NotificationScheduler notificationScheduler;
+
+    public QuestTracker(@Nonnull Supplier<QuestsConfig> config,
                         @Nonnull QuestStorage storage,
                         @Nonnull QuestGenerator generator,
                         @Nonnull QuestRewardCalculator rewardCalculator,
@@ -60,6 +75,17 @@ public class QuestTracker {
 
         // Настраиваем callback для таймера
         this.timerService.setOnTimerExpired(this::onQuestTimerExpired);
+
+        // Очередь ожидания для shared квестов
+        this.availabilityManager.configureWaitlist(
+                config.get().getQuestLimits().getMaxWaitlistSize(),
+                config.get().getQuestLimits().getWaitlistClaimSeconds() * 1000L);
+        this.availabilityManager.setOnSlotOffered(this::onSlotOffered);
+    }
+
+    /** Подключает планировщик уведомлений (объединение и лимит частоты). */
+    public void setNotificationScheduler(@Nonnull NotificationScheduler notificationScheduler) {
+        this.notificationScheduler = notificationScheduler;
     }
 
     // ═════════════════════════════════════════════════════════════
@@ -89,7 +115,13 @@ public class QuestTracker {
                 newPool = generator.generateDailyPool(playerLevel);
             }
 
+            // Квесты старого пула больше не предлагаются — их очереди не нужны
+            for (Quest old : current) {
+                availabilityManager.clearWaitlist(old.getQuestId());
+            }
             storage.saveQuestPool(period, newPool);
+            // Квесты старого пула больше не отображаются
+            langManager.getDisplayCache().clear();
             LOGGER.info("Refreshed {} quest pool: {} quests generated.", period, newPool.size());
         }
     }
@@ -129,13 +161,14 @@ public class QuestTracker {
         if (quest.isExpired()) return AcceptResult.QUEST_EXPIRED;
 
         // Проверяем ранг
-        if (config.getRanks().isEnabled() && !rankService.canAcceptByRank(playerUuid, quest)) {
+        if (config.get().getRanks().isEnabled() && !rankService.canAcceptByRank(playerUuid, quest)) {
             return AcceptResult.RANK_TOO_LOW;
         }
 
-        // Проверяем доступность (GLOBAL_UNIQUE / LIMITED_SLOTS)
-        if (!availabilityManager.isAvailable(quest, playerUuid)) {
-            return AcceptResult.SLOTS_FULL;
+        // Уже в очереди ожидания — не повторяем весь путь принятия
+        boolean available = availabilityManager.isAvailable(quest, playerUuid);
+        if (!available && availabilityManager.getWaitlistPosition(questId, playerUuid) > 0) {
+            return AcceptResult.WAITLISTED;
         }
 
         // Проверяем лимиты
@@ -148,13 +181,13 @@ public class QuestTracker {
                 .count();
 
         int maxActive = quest.getPeriod() == QuestPeriod.WEEKLY
-                ? config.getQuestLimits().getMaxWeeklyActive()
-                : config.getQuestLimits().getMaxDailyActive();
+                ? config.get().getQuestLimits().getMaxWeeklyActive()
+                : config.get().getQuestLimits().getMaxDailyActive();
 
         if (activeCount >= maxActive) return AcceptResult.LIMIT_REACHED;
 
         // Проверка на дубликат типа (только в рамках одного периода: daily отдельно, weekly отдельно)
-        if (config.getProtection().isPreventDuplicateTypes()) {
+        if (config.get().getProtection().isPreventDuplicateTypes()) {
             boolean hasSameType = active.stream().anyMatch(pq -> {
                 Quest q = storage.getQuest(pq.getQuestId());
                 return q != null && q.getPeriod() == quest.getPeriod()
@@ -171,9 +204,12 @@ public class QuestTracker {
         }
 
         // Пытаемся занять слот (для shared квестов)
-        QuestAssignment assignment = availabilityManager.tryAssign(quest, playerUuid);
+        QuestAssignment assignment = available ? availabilityManager.tryAssign(quest, playerUuid) : null;
         if (assignment == null) {
-            return AcceptResult.SLOTS_FULL;
+            // Слоты заняты — ставим в очередь (GLOBAL_UNIQUE / LIMITED_SLOTS)
+            return availabilityManager.joinWaitlist(quest, playerUuid) > 0
+                    ? AcceptResult.WAITLISTED
+                    : AcceptResult.SLOTS_FULL;
         }
 
         // Принимаем
@@ -186,23 +222,34 @@ public class QuestTracker {
             timerService.registerTimer(assignment);
         }
 
-        LOGGER.info("Player {} accepted quest {} ({}) [{}]",
-                playerUuid, quest.getShortId(), quest.getName(), quest.getAccessType());
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.event("quest_accept", "player", playerUuid, "quest", quest.getShortId(),
+                    "name", quest.getName(), "access", quest.getAccessType());
+        } else if (ACCEPT_AUDIT.tryAcquire()) {
+            ACCEPT_AUDIT.emit("quest_accept", "player", playerUuid, "quest", quest.getShortId(),
+                    "access", quest.getAccessType());
+        }
         return AcceptResult.SUCCESS;
     }
 
     /**
-     * Отменяет квест.
+     * Отменяет квест. Если квест не принят, а игрок стоит в очереди на него
+     * (или держит резерв слота), — выводит игрока из очереди.
      */
     @Nonnull
     public AbandonResult abandonQuest(@Nonnull UUID playerUuid, @Nonnull UUID questId) {
         PlayerQuestData data = storage.loadPlayerQuest(playerUuid, questId);
-        if (data == null) return AbandonResult.NOT_FOUND;
-        if (data.getStatus() != QuestStatus.ACTIVE) return AbandonResult.NOT_ACTIVE;
+        if (data == null || data.getStatus() != QuestStatus.ACTIVE) {
+            if (availabilityManager.leaveWaitlist(questId, playerUuid)) {
+                LOGGER.debug("Player {} left waitlist of quest {}", playerUuid, questId);
+                return AbandonResult.LEFT_WAITLIST;
+            }
+            return data == null ? AbandonResult.NOT_FOUND : AbandonResult.NOT_ACTIVE;
+        }
 
         // Проверяем лимит отмен
         int abandonToday = storage.getAbandonCountToday(playerUuid);
-        if (abandonToday >= config.getQuestLimits().getMaxAbandonPerDay()) {
+        if (abandonToday >= config.get().getQuestLimits().getMaxAbandonPerDay()) {
             return AbandonResult.LIMIT_REACHED;
         }
 
@@ -256,7 +303,7 @@ public class QuestTracker {
                 // Отправляем прогресс при каждом действии
                 notifyActionProgress(playerUuid, quest, pqd);
                 // Дополнительно уведомляем на 25/50/75% с прогресс-баром
-                if (config.getGeneral().isNotifyOnProgress()) {
+                if (config.get().getGeneral().isNotifyOnProgress()) {
                     notifyMilestone(playerUuid, quest, pqd);
                 }
             }
@@ -290,7 +337,7 @@ public class QuestTracker {
         timerService.removeTimer(quest.getQuestId(), playerUuid);
 
         // Начисляем очки ранга
-        if (config.getRanks().isEnabled()) {
+        if (config.get().getRanks().isEnabled()) {
             rankService.awardRankPoints(playerUuid, quest);
         }
 
@@ -334,8 +381,9 @@ public class QuestTracker {
                   + (xpGranted && finalXp > 0 ? " | +" + finalXp + " XP" : "")
                 : displayName;
         String icon = MessageUtil.getQuestTypeIcon(category);
-        MessageUtil.sendQuestNotification(playerUuid, hudTitle, hudDesc,
-                "#55FF88", "#E8EDF2", icon, msg);
+        String chatMsg = msg;
+        notifyPriority(playerUuid, quest.getQuestId(), () -> MessageUtil.sendQuestNotification(
+                playerUuid, hudTitle, hudDesc, "#55FF88", "#E8EDF2", icon, chatMsg));
 
         invalidateCache(playerUuid);
     }
@@ -355,14 +403,14 @@ public class QuestTracker {
         String desc = MessageUtil.formatProgress(current, required);
         String icon = MessageUtil.getQuestTypeIcon(category);
 
-        // Chat fallback
-        String chatFallback = langManager.getForPlayer(playerUuid, "quest.action_progress",
-                "name", shortName,
-                "current", String.valueOf((int) current),
-                "required", String.valueOf((int) required));
-
-        MessageUtil.sendQuestNotification(playerUuid, title, desc,
-                "#E8EDF2", "#8A95A5", icon, chatFallback);
+        // Chat fallback — формируется только если HUD недоступен
+        notifyProgress(playerUuid, quest.getQuestId(), () -> MessageUtil.sendQuestNotification(
+                playerUuid, title, desc, "#E8EDF2", "#8A95A5", icon,
+                () -> MessageUtil.sendTemplate(playerUuid,
+                        langManager.getTemplateForPlayer(playerUuid, "quest.action_progress"),
+                        "name", shortName,
+                        "current", String.valueOf((int) current),
+                        "required", String.valueOf((int) required))));
     }
 
     private void notifyMilestone(UUID playerUuid, Quest quest, PlayerQuestData pqd) {
@@ -381,15 +429,15 @@ public class QuestTracker {
             String desc = MessageUtil.formatProgress(current, required);
             String icon = MessageUtil.getQuestTypeIcon(category);
 
-            // Chat fallback с баром
-            String chatFallback = langManager.getForPlayer(playerUuid, "quest.progress",
-                    "name", shortName,
-                    "current", String.valueOf((int) current),
-                    "required", String.valueOf((int) required),
-                    "bar", bar);
-
-            MessageUtil.sendQuestNotification(playerUuid, title, desc,
-                    "#F0C040", "#55FF88", icon, chatFallback);
+            // Chat fallback с баром — формируется только если HUD недоступен
+            notifyThreshold(playerUuid, quest.getQuestId(), () -> MessageUtil.sendQuestNotification(
+                    playerUuid, title, desc, "#F0C040", "#55FF88", icon,
+                    () -> MessageUtil.sendTemplate(playerUuid,
+                            langManager.getTemplateForPlayer(playerUuid, "quest.progress"),
+                            "name", shortName,
+                            "current", String.valueOf((int) current),
+                            "required", String.valueOf((int) required),
+                            "bar", bar)));
         }
     }
 
@@ -399,6 +447,42 @@ public class QuestTracker {
                (newPct >= 0.75 && oldPct < 0.75);
     }
 
+    /**
+     * Прогресс — через планировщик (объединение в окне), иначе сразу.
+     */
+    private void notifyProgress(UUID playerUuid, UUID questId, Runnable send) {
+        NotificationScheduler scheduler = notificationScheduler;
+        if (scheduler != null) {
+            scheduler.submitProgress(playerUuid, questId, send);
+        } else {
+            send.run();
+        }
+    }
+
+    /**
+     * Порог прогресса — отдельно от прогресса, чтобы следующее действие его не заменило.
+     */
+    private void notifyThreshold(UUID playerUuid, UUID questId, Runnable send) {
+        NotificationScheduler scheduler = notificationScheduler;
+        if (scheduler != null) {
+            scheduler.submitMilestone(playerUuid, questId, send);
+        } else {
+            send.run();
+        }
+    }
+
+    /**
+     * Завершение/провал/слот — вне очереди прогресса, раньше него.
+     */
+    private void notifyPriority(UUID playerUuid, UUID questId, Runnable send) {
+        NotificationScheduler scheduler = notificationScheduler;
+        if (scheduler != null) {
+            scheduler.submitPriority(playerUuid, questId, send);
+        } else {
+            send.run();
+        }
+    }
+
     // ═════════════════════════════════════════════════════════════
     //  LOCALIZED QUEST NAMES
     // ═════════════════════════════════════════════════════════════
@@ -409,15 +493,7 @@ public class QuestTracker {
      * Используется в сообщениях о завершении и в GUI.
      */
     private String localizedQuestDesc(UUID playerUuid, Quest quest) {
-        QuestObjective obj = quest.getObjective();
-        String typeKey = "quest.desc." + obj.getType().getId();
-        String target = obj.getTarget();
-        String targetDisplay = (target != null && !target.isEmpty())
-                ? langManager.getForPlayer(playerUuid, "target." + target.toLowerCase())
-                : "";
-        return langManager.getForPlayer(playerUuid, typeKey,
-                "amount", String.valueOf((int) obj.getRequiredAmount()),
-                "target", targetDisplay);
+        return langManager.getDisplayCache().forPlayer(playerUuid, quest).description();
     }
 
     /**
@@ -425,13 +501,7 @@ public class QuestTracker {
      * «Медь», «Зомби», «Валюта» и т.д.
      */
     private String localizedQuestShort(UUID playerUuid, Quest quest) {
-        QuestObjective obj = quest.getObjective();
-        String target = obj.getTarget();
-        if (target != null && !target.isEmpty()) {
-            return langManager.getForPlayer(playerUuid, "target." + target.toLowerCase());
-        }
-        // Для квестов без цели (earn_coins, gain_xp)
-        return langManager.getForPlayer(playerUuid, "quest.type." + obj.getType().getId());
+        return langManager.getDisplayCache().forPlayer(playerUuid, quest).shortName();
     }
 
     // ═════════════════════════════════════════════════════════════
@@ -449,6 +519,7 @@ public class QuestTracker {
                 if (quest != null && quest.isExpired()) {
                     pqd.expire();
                     storage.savePlayerQuest(pqd);
+                    interestMasks.remove(entry.getKey());
                     // Освобождаем слот
                     availabilityManager.releaseAssignment(pqd.getQuestId(), entry.getKey());
                     timerService.removeTimer(pqd.getQuestId(), entry.getKey());
@@ -473,8 +544,8 @@ public class QuestTracker {
         availabilityManager.releaseAssignment(questId, playerUuid);
 
         // Штраф за провал
-        if (config.getRanks().isEnabled() && config.getRanks().isPenalizeOnFail()) {
-            rankService.penalizeRankPoints(playerUuid, config.getRanks().getDefaultFailPenalty());
+        if (config.get().getRanks().isEnabled() && config.get().getRanks().isPenalizeOnFail()) {
+            rankService.penalizeRankPoints(playerUuid, config.get().getRanks().getDefaultFailPenalty());
         }
 
         invalidateCache(playerUuid);
@@ -488,12 +559,32 @@ public class QuestTracker {
         String hudTitle = langManager.getForPlayer(playerUuid, "notify.quest_failed");
         String category = quest != null ? quest.getObjective().getType().getCategory() : null;
         String icon = MessageUtil.getQuestTypeIcon(category);
-        MessageUtil.sendQuestNotification(playerUuid, hudTitle, questName,
-                "#FF5555", "#E8EDF2", icon, msg);
+        notifyPriority(playerUuid, questId, () -> MessageUtil.sendQuestNotification(
+                playerUuid, hudTitle, questName, "#FF5555", "#E8EDF2", icon, msg));
 
         LOGGER.info("Quest {} FAILED (timer expired) for player {}", questId, playerUuid);
     }
 
+    /**
+     * Callback при резервировании освободившегося слота за игроком из очереди.
+     */
+    private void onSlotOffered(@Nonnull UUID questId, @Nonnull UUID playerUuid) {
+        Quest quest = storage.getQuest(questId);
+        if (quest == null) return;
+
+        String displayName = localizedQuestDesc(playerUuid, quest);
+        String seconds = String.valueOf(availabilityManager.getClaimWindowMs() / 1000);
+        String msg = langManager.getForPlayer(playerUuid, "quest.slot_offered",
+                "name", displayName,
+                "seconds", seconds,
+                "id", quest.getShortId());
+
+        String hudTitle = langManager.getForPlayer(playerUuid, "notify.slot_offered");
+        String icon = MessageUtil.getQuestTypeIcon(quest.getObjective().getType().getCategory());
+        notifyPriority(playerUuid, questId, () -> MessageUtil.sendQuestNotification(
+                playerUuid, hudTitle, displayName, "#F0C040", "#E8EDF2", icon, msg));
+    }
+
     // ═════════════════════════════════════════════════════════════
     //  QUERY
     // ═════════════════════════════════════════════════════════════
@@ -521,7 +612,46 @@ public class QuestTracker {
     }
 
     public void invalidateCache(@Nonnull UUID playerUuid) {
+        // Порядок важен: маска пересчитывается из activeQuestCache внутри computeIfAbsent,
+        // поэтому remove маски дожидается завершения параллельного пересчёта.
         activeQuestCache.remove(playerUuid);
+        interestMasks.remove(playerUuid);
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    //  INTEREST MASK
+    // ═════════════════════════════════════════════════════════════
+
+    /** Бит маски интересов для типа квеста. */
+    public static int interestBit(@Nonnull QuestType type) {
+        return 1 << type.ordinal();
+    }
+
+    /**
+     * Маска типов квестов, по которым у игрока есть активные цели.
+     * Слушатели проверяют её первой и отбрасывают нерелевантные события
+     * до обращения к провайдерам и разбора строк.
+     */
+    public int getInterestMask(@Nonnull UUID playerUuid) {
+        return interestMasks.computeIfAbsent(playerUuid, this::computeInterestMask);
+    }
+
+    /**
+     * Есть ли у игрока активный квест данного типа.
+     */
+    public boolean isInterested(@Nonnull UUID playerUuid, @Nonnull QuestType type) {
+        return (getInterestMask(playerUuid) & interestBit(type)) != 0;
+    }
+
+    private int computeInterestMask(UUID playerUuid) {
+        int mask = 0;
+        for (PlayerQuestData pqd : getActiveQuests(playerUuid)) {
+            Quest quest = storage.getQuest(pqd.getQuestId());
+            if (quest != null && !quest.isExpired()) {
+                mask |= interestBit(quest.getObjective().getType());
+            }
+        }
+        return mask;
     }
 
     @Nonnull public QuestRankService getRankService() { return rankService; }
@@ -534,10 +664,10 @@ public class QuestTracker {
 
     public enum AcceptResult {
         SUCCESS, QUEST_NOT_FOUND, QUEST_EXPIRED, LIMIT_REACHED,
-        DUPLICATE_TYPE, ALREADY_ACTIVE, RANK_TOO_LOW, SLOTS_FULL
+        DUPLICATE_TYPE, ALREADY_ACTIVE, RANK_TOO_LOW, SLOTS_FULL, WAITLISTED
     }
 
     public enum AbandonResult {
-        SUCCESS, NOT_FOUND, NOT_ACTIVE, LIMIT_REACHED
+        SUCCESS, NOT_FOUND, NOT_ACTIVE, LIMIT_REACHED, LEFT_WAITLIST
     }
 }
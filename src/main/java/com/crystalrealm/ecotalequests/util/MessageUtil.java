@@ -1,12 +1,17 @@
 package com.crystalrealm.ecotalequests.util;
 
+import com.crystalrealm.ecotalequests.config.QuestsConfig;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.Locale;
-import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * Утилита для форматирования и отправки сообщений/уведомлений игрокам.
@@ -16,61 +21,77 @@ import java.util.concurrent.ConcurrentHashMap;
  *   <li>{@code NotificationUtil.sendNotification()} — нативный HUD popup (приоритет)</li>
  *   <li>{@code Player.sendMessage(Message)} — fallback в чат</li>
  * </ol>
+ *
+ * <p>Методы Hytale API связываются один раз в {@link MethodHandle}
+ * (чат — {@link #checkChatApi}, HUD — {@link #checkNotificationApi},
+ * {@code sendMessage} — на каждый класс PlayerRef), поэтому доставка
+ * сообщения не выполняет рефлективных поисков.</p>
  */
 public final class MessageUtil {
 
     private static final PluginLogger LOGGER = PluginLogger.forEnclosingClass();
 
-    private static final DecimalFormat COIN_FORMAT;
-    private static final DecimalFormat COIN_FORMAT_ROUNDED;
-    private static final Map<UUID, Object> PLAYER_REF_CACHE = new ConcurrentHashMap<>();
+    /** DecimalFormat не потокобезопасен — только для редких значений, по экземпляру на поток. */
+    private static final ThreadLocal<DecimalFormat> COIN_FORMAT =
+            ThreadLocal.withInitial(() -> new DecimalFormat("#,##0.##", DecimalFormatSymbols.getInstance(Locale.US)));
+    private static final ThreadLocal<DecimalFormat> COIN_FORMAT_ROUNDED =
+            ThreadLocal.withInitial(() -> new DecimalFormat("#,##0", DecimalFormatSymbols.getInstance(Locale.US)));
+    private static final ThreadLocal<StringBuilder> FORMAT_BUILDER =
+            ThreadLocal.withInitial(() -> new StringBuilder(32));
+    /** Выше этого порога центы не помещаются в точную арифметику double. */
+    private static final double MAX_FAST_FORMAT = 1e13;
+    private static volatile Supplier<QuestsConfig.GeneralSection> currencySettings;
+
+    private static final String MESSAGE_CLASS = "com.hypixel.hytale.server.core.Message";
+
+    // ── Bound chat API (Message.parse / Message.raw) ────────────
+    private static volatile boolean chatApiChecked = false;
+    private static Class<?> messageClass;
+    /** {@code Message.parse(String json)}: (String)Object. */
+    private static MethodHandle messageParseHandle;
+    /** {@code Message.raw(String)} — запасной вариант без форматирования: (String)Object. */
+    private static MethodHandle messagePlainHandle;
+
+    /**
+     * {@code sendMessage(Message)} на каждый класс PlayerRef: (Object, Object)void.
+     * Пусто — у класса нет подходящего метода (предупреждение пишется один раз).
+     */
+    private static final ClassValue<Optional<MethodHandle>> SEND_MESSAGE = new ClassValue<>() {
+        @Override
+        protected Optional<MethodHandle> computeValue(Class<?> type) {
+            MethodHandle handle = bindSendMessage(type);
+            if (handle == null) {
+                LOGGER.warn("[sendMsg] {} has no sendMessage(Message) — chat delivery disabled for it.",
+                        type.getName());
+            }
+            return Optional.ofNullable(handle);
+        }
+    };
 
-    // ── Reflection cache for NotificationUtil ───────────────────
+    // ── Bound NotificationUtil API ──────────────────────────────
     private static volatile boolean notificationApiChecked = false;
     private static volatile boolean notificationApiAvailable = false;
-    private static Method notificationSendMethod;
-    private static Method messageRawMethod;
-    private static Method messageColorMethod;
+    /** (Object packetHandler, Object title, Object desc, String icon, Object item, Object style)void */
+    private static MethodHandle notificationSendHandle;
+    /** (String)Object */
+    private static MethodHandle messageRawHandle;
+    /** (Object message, String color)Object */
+    private static MethodHandle messageColorHandle;
     private static Class<?> notificationStyleClass;
     private static Object notificationStyleDefault;
-    private static Method getPacketHandlerMethod;
-
-    static {
-        DecimalFormatSymbols symbols = new DecimalFormatSymbols(Locale.US);
-        symbols.setDecimalSeparator('.');
-        COIN_FORMAT = new DecimalFormat("#,##0.##", symbols);
-        COIN_FORMAT_ROUNDED = new DecimalFormat("#,##0", symbols);
-    }
+    /** (Object playerRef)Object */
+    private static MethodHandle getPacketHandlerHandle;
 
     private MessageUtil() {}
 
-    // ── PlayerRef Cache ─────────────────────────────────────────
-
-    public static void cachePlayerRef(UUID uuid, Object playerRef) {
-        if (uuid != null && playerRef != null) {
-            PLAYER_REF_CACHE.put(uuid, playerRef);
-        }
-    }
-
-    public static void clearCache() {
-        PLAYER_REF_CACHE.clear();
-    }
-
-    /**
-     * Возвращает множество UUID всех кешированных игроков.
-     */
-    public static java.util.Set<UUID> getCachedPlayerUuids() {
-        return PLAYER_REF_CACHE.keySet();
-    }
-
     // ── Message Sending ─────────────────────────────────────────
 
     /**
-     * Отправляет MiniMessage-сообщение игроку через кеш PlayerRef.
+     * Отправляет MiniMessage-сообщение онлайн-игроку ({@link PlayerSessions}).
      */
     public static void sendMessage(UUID playerUuid, String miniMessage) {
         try {
-            Object playerRef = PLAYER_REF_CACHE.get(playerUuid);
+            Object playerRef = PlayerSessions.playerRef(playerUuid);
             if (playerRef != null) {
                 trySendViaPlayerRef(playerRef, miniMessage);
             }
@@ -79,24 +100,134 @@ public final class MessageUtil {
         }
     }
 
+    /**
+     * Отправляет сообщение по MiniMessage-шаблону с плейсхолдерами {@code {name}}.
+     * Шаблон компилируется один раз ({@link MiniMessageParser#compile}); отправка
+     * лишь склеивает готовые JSON-фрагменты с экранированными аргументами.
+     *
+     * @param args пары имя/значение, как в {@code LangManager.getForLang}
+     */
+    public static void sendTemplate(UUID playerUuid, String template, String... args) {
+        try {
+            Object playerRef = PlayerSessions.playerRef(playerUuid);
+            if (playerRef == null) return;
+            checkChatApi();
+            if (messageParseHandle != null) {
+                deliver(playerRef, MiniMessageParser.compile(template).render(args), null);
+            } else {
+                String text = template;
+                for (int i = 0; i + 1 < args.length; i += 2) {
+                    text = text.replace("{" + args[i] + "}", args[i + 1]);
+                }
+                deliver(playerRef, null, MiniMessageParser.stripTags(text));
+            }
+        } catch (Throwable e) {
+            LOGGER.debug("sendTemplate failed for {}: {}", playerUuid, e.getMessage());
+        }
+    }
+
     private static void trySendViaPlayerRef(Object playerRef, String text) {
+        checkChatApi();
+        // MiniMessage → Hytale JSON → Message; без parse — простой текст
+        if (messageParseHandle != null) {
+            deliver(playerRef, MiniMessageParser.toJson(text), null);
+        } else {
+            deliver(playerRef, null, MiniMessageParser.stripTags(text));
+        }
+    }
+
+    /**
+     * Доставляет готовый JSON (через {@code Message.parse}) либо простой текст
+     * (через {@code Message.raw}).
+     */
+    private static void deliver(Object playerRef, String json, String plain) {
         try {
-            // Convert MiniMessage to Hytale JSON
-            String jsonText = MiniMessageParser.toJson(text);
+            MethodHandle send = messageClass != null
+                    ? SEND_MESSAGE.get(playerRef.getClass()).orElse(null)
+                    : null;
+            if (send == null) return;
 
-            // Parse JSON into Message object
-            Class<?> msgClass = Class.forName("com.hypixel.hytale.server.core.Message");
-            Method parseMethod = msgClass.getMethod("parse", String.class);
-            Object parsedMsg = parseMethod.invoke(null, jsonText);
+            Object message = json != null
+                    ? (Object) messageParseHandle.invokeExact(json)
+                    : (Object) messagePlainHandle.invokeExact(plain);
 
             // Same pattern as QuestGui.sendMsg — direct playerRef.sendMessage(Message)
-            Method sendMethod = playerRef.getClass().getMethod("sendMessage", msgClass);
-            sendMethod.invoke(playerRef, parsedMsg);
+            send.invokeExact(playerRef, message);
         } catch (Throwable e) {
             LOGGER.warn("[sendMsg] failed for {}: {}", playerRef.getClass().getSimpleName(), e.getMessage());
         }
     }
 
+    // ── Chat API Binding ────────────────────────────────────────
+
+    /**
+     * Однократно связывает {@code Message.parse} (или {@code Message.raw}
+     * как запасной вариант) в MethodHandle.
+     */
+    private static void checkChatApi() {
+        if (chatApiChecked) return;
+        synchronized (MessageUtil.class) {
+            if (chatApiChecked) return;
+            try {
+                Class<?> msgClass = Class.forName(MESSAGE_CLASS);
+                MethodType fromString = MethodType.methodType(Object.class, String.class);
+                messageParseHandle = bindStatic(msgClass, "parse", fromString);
+                messagePlainHandle = bindStatic(msgClass, "raw", fromString);
+                if (messageParseHandle == null && messagePlainHandle == null) {
+                    LOGGER.warn("Message.parse/raw not found — chat messages disabled.");
+                } else {
+                    if (messageParseHandle == null) {
+                        LOGGER.warn("Message.parse not found — chat messages sent as plain text.");
+                    }
+                    messageClass = msgClass;
+                }
+            } catch (ClassNotFoundException e) {
+                LOGGER.warn("Message class not available ({}). Chat messages disabled.", e.getMessage());
+            }
+            chatApiChecked = true;
+        }
+    }
+
+    /**
+     * Ищет {@code sendMessage(Message)}; при отсутствии — любой одноаргументный
+     * {@code sendMessage}, принимающий Message (например, супертип).
+     */
+    private static MethodHandle bindSendMessage(Class<?> playerRefClass) {
+        Method method = null;
+        try {
+            method = playerRefClass.getMethod("sendMessage", messageClass);
+        } catch (NoSuchMethodException e) {
+            for (Method m : playerRefClass.getMethods()) {
+                if (m.getName().equals("sendMessage") && m.getParameterCount() == 1
+                        && m.getParameterTypes()[0].isAssignableFrom(messageClass)) {
+                    method = m;
+                    break;
+                }
+            }
+        }
+        return method != null
+                ? unreflect(method, MethodType.methodType(void.class, Object.class, Object.class))
+                : null;
+    }
+
+    private static MethodHandle bindStatic(Class<?> owner, String name, MethodType erasedType) {
+        try {
+            return unreflect(owner.getMethod(name, erasedType.parameterArray()), erasedType);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static MethodHandle unreflect(Method method, MethodType erasedType) {
+        try {
+            method.trySetAccessible();
+            return MethodHandles.lookup().unreflect(method).asType(erasedType);
+        } catch (IllegalAccessException | RuntimeException e) {
+            LOGGER.warn("Cannot bind {}: {}", method.toGenericString(), e.getMessage());
+            return null;
+        }
+    }
+
     // ── NotificationUtil API Detection ──────────────────────────
 
     private static synchronized void checkNotificationApi() {
@@ -105,22 +236,33 @@ public final class MessageUtil {
 
         try {
             Class<?> notifUtilClass = Class.forName("com.hypixel.hytale.server.core.util.NotificationUtil");
-            Class<?> messageClass = Class.forName("com.hypixel.hytale.server.core.Message");
+            Class<?> messageClass = Class.forName(MESSAGE_CLASS);
             Class<?> packetHandlerClass = Class.forName("com.hypixel.hytale.server.core.io.PacketHandler");
             notificationStyleClass = Class.forName("com.hypixel.hytale.protocol.packets.interface_.NotificationStyle");
             Class<?> itemMetaClass = Class.forName("com.hypixel.hytale.protocol.ItemWithAllMetadata");
 
             notificationStyleDefault = notificationStyleClass.getField("Default").get(null);
 
-            notificationSendMethod = notifUtilClass.getMethod("sendNotification",
-                    packetHandlerClass, messageClass, messageClass,
-                    String.class, itemMetaClass, notificationStyleClass);
+            notificationSendHandle = unreflect(notifUtilClass.getMethod("sendNotification",
+                            packetHandlerClass, messageClass, messageClass,
+                            String.class, itemMetaClass, notificationStyleClass),
+                    MethodType.methodType(void.class, Object.class, Object.class, Object.class,
+                            String.class, Object.class, Object.class));
 
-            messageRawMethod = messageClass.getMethod("raw", String.class);
-            messageColorMethod = messageClass.getMethod("color", String.class);
+            messageRawHandle = unreflect(messageClass.getMethod("raw", String.class),
+                    MethodType.methodType(Object.class, String.class));
+            messageColorHandle = unreflect(messageClass.getMethod("color", String.class),
+                    MethodType.methodType(Object.class, Object.class, String.class));
 
             Class<?> playerRefClass = Class.forName("com.hypixel.hytale.server.core.universe.PlayerRef");
-            getPacketHandlerMethod = playerRefClass.getMethod("getPacketHandler");
+            getPacketHandlerHandle = unreflect(playerRefClass.getMethod("getPacketHandler"),
+                    MethodType.methodType(Object.class, Object.class));
+
+            if (notificationSendHandle == null || messageRawHandle == null
+                    || messageColorHandle == null || getPacketHandlerHandle == null) {
+                LOGGER.warn("NotificationUtil API could not be bound. Using chat fallback.");
+                return;
+            }
 
             notificationApiAvailable = true;
             LOGGER.info("Native HUD notification API (NotificationUtil) detected and ready.");
@@ -173,6 +315,27 @@ public final class MessageUtil {
         }
     }
 
+    /**
+     * Вариант с ленивым чат-fallback: {@code chatFallback} выполняется только
+     * если HUD-уведомление не доставлено (например, отправка по шаблону
+     * через {@link #sendTemplate}).
+     */
+    public static void sendQuestNotification(UUID playerUuid,
+                                             String title,
+                                             String description,
+                                             String titleColor,
+                                             String descColor,
+                                             String iconPath,
+                                             Runnable chatFallback) {
+        checkNotificationApi();
+
+        if (notificationApiAvailable && trySendNativeNotification(playerUuid, title, description,
+                titleColor, descColor, iconPath)) {
+            return;
+        }
+        chatFallback.run();
+    }
+
     private static boolean trySendNativeNotification(UUID playerUuid,
                                                      String title,
                                                      String description,
@@ -180,23 +343,22 @@ public final class MessageUtil {
                                                      String descColor,
                                                      String iconPath) {
         try {
-            Object playerRef = PLAYER_REF_CACHE.get(playerUuid);
+            Object playerRef = PlayerSessions.playerRef(playerUuid);
             if (playerRef == null) return false;
 
-            Object packetHandler = getPacketHandlerMethod.invoke(playerRef);
+            Object packetHandler = (Object) getPacketHandlerHandle.invokeExact(playerRef);
             if (packetHandler == null) return false;
 
-            Object titleMsg = messageRawMethod.invoke(null, title);
-            titleMsg = messageColorMethod.invoke(titleMsg, titleColor);
+            Object titleMsg = (Object) messageRawHandle.invokeExact(title);
+            titleMsg = (Object) messageColorHandle.invokeExact(titleMsg, titleColor);
 
-            Object descMsg = messageRawMethod.invoke(null, description);
-            descMsg = messageColorMethod.invoke(descMsg, descColor);
+            Object descMsg = (Object) messageRawHandle.invokeExact(description);
+            descMsg = (Object) messageColorHandle.invokeExact(descMsg, descColor);
 
             if (iconPath == null) iconPath = "Particles/Textures/Basic/Star.png";
 
-            notificationSendMethod.invoke(null,
-                    packetHandler, titleMsg, descMsg,
-                    iconPath, null, notificationStyleDefault);
+            notificationSendHandle.invokeExact(packetHandler, titleMsg, descMsg,
+                    iconPath, (Object) null, notificationStyleDefault);
 
             LOGGER.debug("HUD quest notification sent to {}: {} | {}", playerUuid, title, description);
             return true;
@@ -234,12 +396,111 @@ public final class MessageUtil {
 
     // ── Formatting ──────────────────────────────────────────────
 
+    /**
+     * Источник настроек валюты (символ и округление). Читается при каждом
+     * форматировании, поэтому перезагрузка конфига и правки из админ-GUI
+     * применяются сразу.
+     */
+    public static void setCurrencySettings(Supplier<QuestsConfig.GeneralSection> source) {
+        currencySettings = source;
+    }
+
+    /**
+     * Форматирует сумму точно: «1,234.5». Для выплаченных наград — показывает
+     * ровно то, что зачислено; округление {@code RoundCurrency} применяют
+     * {@link #formatCurrency}/{@link #appendCurrency}.
+     */
     public static String formatCoins(double amount) {
-        return COIN_FORMAT.format(amount);
+        return formatCoins(amount, false);
     }
 
     public static String formatCoins(double amount, boolean round) {
-        return round ? COIN_FORMAT_ROUNDED.format(Math.ceil(amount)) : COIN_FORMAT.format(amount);
+        StringBuilder sb = FORMAT_BUILDER.get();
+        sb.setLength(0);
+        appendCoins(sb, amount, round);
+        return sb.toString();
+    }
+
+    /**
+     * Сумма с символом валюты: «1,234.5$» (с учётом {@code RoundCurrency}).
+     */
+    public static String formatCurrency(double amount) {
+        StringBuilder sb = FORMAT_BUILDER.get();
+        sb.setLength(0);
+        appendCurrency(sb, amount);
+        return sb.toString();
+    }
+
+    /**
+     * Дописывает сумму с символом валюты в {@code sb}.
+     */
+    public static StringBuilder appendCurrency(StringBuilder sb, double amount) {
+        QuestsConfig.GeneralSection general = generalSettings();
+        boolean round = general != null && general.isRoundCurrency();
+        String symbol = general != null ? general.getCurrencySymbol() : "$";
+        return appendCoins(sb, amount, round).append(symbol);
+    }
+
+    /**
+     * Дописывает сумму в {@code sb} без промежуточных объектов.
+     *
+     * <p>Результат совпадает с {@code DecimalFormat("#,##0.##")} (HALF_EVEN
+     * по точному значению double) и, при {@code round}, с
+     * {@code DecimalFormat("#,##0")} от {@code Math.ceil(amount)}.
+     * Потокобезопасно: общего изменяемого состояния нет.</p>
+     */
+    public static StringBuilder appendCoins(StringBuilder sb, double amount, boolean round) {
+        double value = round ? Math.ceil(amount) : amount;
+        if (!Double.isFinite(value) || Math.abs(value) >= MAX_FAST_FORMAT) {
+            // Экзотика (NaN, ∞, > 10^13) — через DecimalFormat своего потока
+            return sb.append((round ? COIN_FORMAT_ROUNDED : COIN_FORMAT).get().format(value));
+        }
+
+        boolean negative = value < 0 || (value == 0 && Double.doubleToRawLongBits(value) != 0);
+        double abs = Math.abs(value);
+
+        long cents;
+        if (round) {
+            cents = (long) abs * 100;
+        } else {
+            double scaled = abs * 100;
+            double floor = Math.floor(scaled);
+            double frac = scaled - floor;
+            // Точный остаток умножения: знак решает «ничью» на .5
+            double residual = Math.fma(abs, 100, -scaled);
+            cents = (long) floor;
+            if (frac > 0.5 || (frac == 0.5 && (residual > 0 || (residual == 0 && (cents & 1) == 1)))) {
+                cents++;
+            }
+        }
+
+        if (negative) sb.append('-');
+        appendGrouped(sb, cents / 100);
+        int fraction = (int) (cents % 100);
+        if (fraction != 0) {
+            sb.append('.').append((char) ('0' + fraction / 10));
+            if (fraction % 10 != 0) sb.append((char) ('0' + fraction % 10));
+        }
+        return sb;
+    }
+
+    /** Целая часть с разделителем тысяч «,». */
+    private static void appendGrouped(StringBuilder sb, long value) {
+        if (value < 1000) {
+            sb.append(value);
+            return;
+        }
+        appendGrouped(sb, value / 1000);
+        int rest = (int) (value % 1000);
+        sb.append(',');
+        if (rest < 100) sb.append('0');
+        if (rest < 10) sb.append('0');
+        sb.append(rest);
+    }
+
+    private static QuestsConfig.GeneralSection generalSettings() {
+        Supplier<QuestsConfig.GeneralSection> source = currencySettings;
+        return source != null ? source.get() : null;
     }
 
     public static String formatPercent(double ratio) {
@@ -1,15 +1,27 @@
 package com.crystalrealm.ecotalequests.util;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Converts MiniMessage-formatted strings to Hytale JSON rich text.
  * Hytale's Message.parse() expects PascalCase keys and hex colors.
+ *
+ * <p>Lang templates can be {@link #compile compiled} once into static JSON
+ * fragments and placeholder slots; rendering a compiled template then only
+ * concatenates fragments with escaped arguments.</p>
  */
 public final class MiniMessageParser {
 
+    /** Marks a placeholder slot inside compiled JSON; never produced by escaping. */
+    private static final String SLOT_MARKER = "\u0000";
+    private static final int MAX_CACHED_TEMPLATES = 4096;
+    private static final int MAX_POOLED_CAPACITY = 8192;
+
+    private static final Map<String, Template> TEMPLATE_CACHE = new ConcurrentHashMap<>();
+    private static final ThreadLocal<StringBuilder> BUILDER =
+            ThreadLocal.withInitial(() -> new StringBuilder(256));
+
     private static final Map<String, String> COLOR_HEX = new HashMap<>();
     static {
         COLOR_HEX.put("black",        "#000000");
@@ -30,54 +42,44 @@ public final class MiniMessageParser {
         COLOR_HEX.put("white",        "#ffffff");
     }
 
-    private static final Pattern TAG_PATTERN = Pattern.compile("<(/?)([a-z_]+|#[0-9a-fA-F]{6})>");
-
     private MiniMessageParser() {}
 
     public static String toJson(String input) {
         if (input == null || input.isEmpty()) return "{\"RawText\":\"\"}";
-        if (!input.contains("<")) return "{\"RawText\":\"" + escapeJson(input) + "\"}";
+        if (input.indexOf('<') < 0) return "{\"RawText\":\"" + escapeJson(input) + "\"}";
 
         List<String> components = new ArrayList<>();
-        String color = null;
-        boolean bold = false, italic = false, underline = false;
-        Matcher m = TAG_PATTERN.matcher(input);
+        Style style = new Style();
         int lastEnd = 0;
+        int i = input.indexOf('<');
 
-        while (m.find()) {
-            if (m.start() > lastEnd) {
-                String text = input.substring(lastEnd, m.start());
-                if (!text.isEmpty()) components.add(buildComponent(text, color, bold, italic, underline));
+        while (i >= 0) {
+            int tagEnd = tagEnd(input, i);
+            if (tagEnd < 0) {
+                i = input.indexOf('<', i + 1);
+                continue;
             }
-            boolean closing = "/".equals(m.group(1));
-            String tag = m.group(2);
-            if (closing) {
-                if ("bold".equals(tag)) bold = false;
-                else if ("italic".equals(tag)) italic = false;
-                else if ("underlined".equals(tag)) underline = false;
-                else if (tag.startsWith("#")) color = null;
-            } else {
-                if ("bold".equals(tag)) bold = true;
-                else if ("italic".equals(tag)) italic = true;
-                else if ("underlined".equals(tag)) underline = true;
-                else if (tag.startsWith("#")) color = tag.toLowerCase();
-                else if (COLOR_HEX.containsKey(tag)) color = COLOR_HEX.get(tag);
+            if (i > lastEnd) {
+                String text = input.substring(lastEnd, i);
+                components.add(buildComponent(text, style.color, style.bold, style.italic, style.underline));
             }
-            lastEnd = m.end();
+            style.apply(input, i, tagEnd);
+            lastEnd = tagEnd;
+            i = input.indexOf('<', tagEnd);
         }
 
         if (lastEnd < input.length()) {
             String text = input.substring(lastEnd);
-            if (!text.isEmpty()) components.add(buildComponent(text, color, bold, italic, underline));
+            components.add(buildComponent(text, style.color, style.bold, style.italic, style.underline));
         }
 
         if (components.isEmpty()) return "{\"RawText\":\"\"}";
         if (components.size() == 1) return components.get(0);
 
         StringBuilder sb = new StringBuilder("{\"RawText\":\"\",\"Children\":[");
-        for (int i = 0; i < components.size(); i++) {
-            if (i > 0) sb.append(",");
-            sb.append(components.get(i));
+        for (int c = 0; c < components.size(); c++) {
+            if (c > 0) sb.append(",");
+            sb.append(components.get(c));
         }
         sb.append("]}");
         return sb.toString();
@@ -85,11 +87,282 @@ public final class MiniMessageParser {
 
     public static String stripTags(String input) {
         if (input == null) return "";
-        return TAG_PATTERN.matcher(input).replaceAll("");
+        int i = input.indexOf('<');
+        if (i < 0) return input;
+
+        StringBuilder sb = new StringBuilder(input.length());
+        int lastEnd = 0;
+        while (i >= 0) {
+            int tagEnd = tagEnd(input, i);
+            if (tagEnd < 0) {
+                i = input.indexOf('<', i + 1);
+                continue;
+            }
+            sb.append(input, lastEnd, i);
+            lastEnd = tagEnd;
+            i = input.indexOf('<', tagEnd);
+        }
+        return sb.append(input, lastEnd, input.length()).toString();
+    }
+
+    // ── Compiled templates ──────────────────────────────────────
+
+    /**
+     * Compiles a MiniMessage template with {@code {name}} placeholders into
+     * static JSON fragments and placeholder slots. Compiled templates are
+     * cached by their source text.
+     */
+    public static Template compile(String template) {
+        if (template == null) template = "";
+        Template cached = TEMPLATE_CACHE.get(template);
+        if (cached != null) return cached;
+
+        Template compiled = Template.compile(template);
+        if (TEMPLATE_CACHE.size() < MAX_CACHED_TEMPLATES) {
+            TEMPLATE_CACHE.putIfAbsent(template, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Drops all compiled templates. Called when lang files are reloaded so
+     * templates of replaced strings do not linger in the cache.
+     */
+    public static void clearTemplateCache() {
+        TEMPLATE_CACHE.clear();
+    }
+
+    /**
+     * Index of the closing brace of a {@code {name}} placeholder opened at
+     * {@code open}, or -1. Names are letters, digits, {@code _} and {@code .};
+     * anything else (spaces, nested braces, JSON) is plain text. Shared with
+     * the lang templates so both parse placeholders the same way.
+     */
+    public static int placeholderEnd(String text, int open) {
+        int i = open + 1;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '}') return i > open + 1 ? i : -1;
+            if (!(Character.isLetterOrDigit(c) || c == '_' || c == '.')) return -1;
+            i++;
+        }
+        return -1;
+    }
+
+    /**
+     * Pre-parsed MiniMessage template. Rendering concatenates static JSON
+     * fragments with JSON-escaped argument values; no tag scanning happens
+     * unless an argument itself carries MiniMessage tags.
+     */
+    public static final class Template {
+
+        private final String source;
+        /** Static JSON fragments; {@code parts[i]} precedes slot {@code i}. */
+        private final String[] parts;
+        private final String[] slotNames;
+        /** Placeholders inside tags (e.g. {@code <{color}>}) — always parsed after substitution. */
+        private final boolean dynamic;
+
+        private Template(String source, String[] parts, String[] slotNames, boolean dynamic) {
+            this.source = source;
+            this.parts = parts;
+            this.slotNames = slotNames;
+            this.dynamic = dynamic;
+        }
+
+        static Template compile(String source) {
+            if (hasUnparsedAngle(source)) {
+                return new Template(source, new String[0], new String[0], true);
+            }
+
+            // Split into styled runs exactly as toJson does, keeping placeholders
+            List<String> runJson = new ArrayList<>();  // per run: JSON with \0 slot markers
+            List<String> names = new ArrayList<>();
+            Style style = new Style();
+            int lastEnd = 0;
+            int i = source.indexOf('<');
+            while (i >= 0) {
+                int tagEnd = tagEnd(source, i);
+                if (i > lastEnd) {
+                    runJson.add(buildTemplateComponent(source.substring(lastEnd, i), style, names));
+                }
+                style.apply(source, i, tagEnd);
+                lastEnd = tagEnd;
+                i = source.indexOf('<', tagEnd);
+            }
+            if (lastEnd < source.length()) {
+                runJson.add(buildTemplateComponent(source.substring(lastEnd), style, names));
+            }
+
+            String json;
+            if (runJson.isEmpty()) {
+                json = "{\"RawText\":\"\"}";
+            } else if (runJson.size() == 1) {
+                json = runJson.get(0);
+            } else {
+                json = "{\"RawText\":\"\",\"Children\":[" + String.join(",", runJson) + "]}";
+            }
+
+            String[] parts = json.split(SLOT_MARKER, -1);
+            return new Template(source, parts, names.toArray(new String[0]), false);
+        }
+
+        /** Whether the template has no placeholders (rendering is a constant). */
+        public boolean isStatic() {
+            return !dynamic && slotNames.length == 0;
+        }
+
+        /**
+         * Renders Hytale JSON.
+         *
+         * @param args placeholder name/value pairs, as in {@code LangManager.getForLang}
+         */
+        public String render(String... args) {
+            if (isStatic()) return parts[0];
+            if (dynamic) return toJson(substitute(source, args));
+
+            for (String name : slotNames) {
+                String value = lookup(name, args);
+                // Argument carries its own tags — they restyle the rest of the line
+                if (value != null && value.indexOf('<') >= 0) return toJson(substitute(source, args));
+            }
+
+            StringBuilder sb = BUILDER.get();
+            sb.setLength(0);
+            for (int s = 0; s < slotNames.length; s++) {
+                sb.append(parts[s]);
+                String value = lookup(slotNames[s], args);
+                if (value != null) {
+                    appendEscaped(sb, value);
+                } else {
+                    appendEscaped(sb, "{" + slotNames[s] + "}");
+                }
+            }
+            sb.append(parts[slotNames.length]);
+            String json = sb.toString();
+            if (sb.capacity() > MAX_POOLED_CAPACITY) BUILDER.remove();
+            return json;
+        }
+
+        private static String lookup(String name, String[] args) {
+            for (int a = 0; a + 1 < args.length; a += 2) {
+                if (name.equals(args[a])) return args[a + 1];
+            }
+            return null;
+        }
+
+        private static String substitute(String message, String[] args) {
+            for (int a = 0; a + 1 < args.length; a += 2) {
+                message = message.replace("{" + args[a] + "}", args[a + 1]);
+            }
+            return message;
+        }
+
+        /** A '<' that is not a recognised tag (e.g. {@code <{color}>}) makes the template dynamic. */
+        private static boolean hasUnparsedAngle(String source) {
+            for (int i = source.indexOf('<'); i >= 0; i = source.indexOf('<', i + 1)) {
+                if (tagEnd(source, i) < 0) return true;
+            }
+            return false;
+        }
+
+        private static String buildTemplateComponent(String text, Style style, List<String> names) {
+            StringBuilder escaped = new StringBuilder(text.length() + 8);
+            int last = 0;
+            int open = text.indexOf('{');
+            while (open >= 0) {
+                int close = placeholderEnd(text, open);
+                if (close < 0) {
+                    open = text.indexOf('{', open + 1);
+                    continue;
+                }
+                appendEscaped(escaped, text.substring(last, open));
+                escaped.append(SLOT_MARKER);
+                names.add(text.substring(open + 1, close));
+                last = close + 1;
+                open = text.indexOf('{', last);
+            }
+            appendEscaped(escaped, text.substring(last));
+
+            StringBuilder sb = new StringBuilder("{\"RawText\":\"").append(escaped).append("\"");
+            style.appendTo(sb);
+            return sb.append("}").toString();
+        }
+
+        @Override
+        public String toString() {
+            return "Template{" + source + '}';
+        }
+    }
+
+    // ── Tag scanning ────────────────────────────────────────────
+
+    /**
+     * Returns the index just past a recognised tag starting at {@code start}
+     * ({@code <name>}, {@code </name>}, {@code <#rrggbb>}), or -1.
+     */
+    private static int tagEnd(String s, int start) {
+        int i = start + 1;
+        int n = s.length();
+        if (i < n && s.charAt(i) == '/') i++;
+        if (i >= n) return -1;
+
+        if (s.charAt(i) == '#') {
+            int end = i + 7;
+            if (end >= n || s.charAt(end) != '>') return -1;
+            for (int h = i + 1; h < end; h++) {
+                if (Character.digit(s.charAt(h), 16) < 0) return -1;
+            }
+            return end + 1;
+        }
+
+        int nameStart = i;
+        while (i < n) {
+            char c = s.charAt(i);
+            if ((c >= 'a' && c <= 'z') || c == '_') {
+                i++;
+            } else {
+                break;
+            }
+        }
+        return i > nameStart && i < n && s.charAt(i) == '>' ? i + 1 : -1;
+    }
+
+    /** Formatting state while walking tags left to right. */
+    private static final class Style {
+        String color;
+        boolean bold, italic, underline;
+
+        /** Applies the tag {@code s[start, end)}. */
+        void apply(String s, int start, int end) {
+            boolean closing = s.charAt(start + 1) == '/';
+            String tag = s.substring(closing ? start + 2 : start + 1, end - 1);
+            if (closing) {
+                if ("bold".equals(tag)) bold = false;
+                else if ("italic".equals(tag)) italic = false;
+                else if ("underlined".equals(tag)) underline = false;
+                else if (tag.startsWith("#")) color = null;
+            } else {
+                if ("bold".equals(tag)) bold = true;
+                else if ("italic".equals(tag)) italic = true;
+                else if ("underlined".equals(tag)) underline = true;
+                else if (tag.startsWith("#")) color = tag.toLowerCase();
+                else if (COLOR_HEX.containsKey(tag)) color = COLOR_HEX.get(tag);
+            }
+        }
+
+        void appendTo(StringBuilder sb) {
+            if (color != null) sb.append(",\"Color\":\"").append(color).append("\"");
+            if (bold) sb.append(",\"Bold\":true");
+            if (italic) sb.append(",\"Italic\":true");
+            if (underline) sb.append(",\"Underline\":true");
+        }
     }
 
     private static String buildComponent(String text, String hex, boolean bold, boolean italic, boolean underline) {
-        StringBuilder sb = new StringBuilder("{\"RawText\":\"").append(escapeJson(text)).append("\"");
+        StringBuilder sb = new StringBuilder("{\"RawText\":\"");
+        appendEscaped(sb, text);
+        sb.append("\"");
         if (hex != null) sb.append(",\"Color\":\"").append(hex).append("\"");
         if (bold) sb.append(",\"Bold\":true");
         if (italic) sb.append(",\"Italic\":true");
@@ -100,6 +373,11 @@ public final class MiniMessageParser {
 
     private static String escapeJson(String text) {
         StringBuilder sb = new StringBuilder(text.length());
+        appendEscaped(sb, text);
+        return sb.toString();
+    }
+
+    private static void appendEscaped(StringBuilder sb, String text) {
         for (int i = 0; i < text.length(); i++) {
             char c = text.charAt(i);
             switch (c) {
@@ -108,9 +386,9 @@ public final class MiniMessageParser {
                 case '\n': sb.append("\\n"); break;
                 case '\r': sb.append("\\r"); break;
                 case '\t': sb.append("\\t"); break;
+                case '\0': sb.append("\\u0000"); break;
                 default:   sb.append(c); break;
             }
         }
-        return sb.toString();
     }
 }
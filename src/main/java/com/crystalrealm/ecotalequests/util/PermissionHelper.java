@@ -6,6 +6,9 @@ import com.google.gson.reflect.TypeToken;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.lang.reflect.Type;
@@ -14,23 +17,42 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * Reads {@code permissions.json} and resolves group-based permissions manually,
  * because Hytale's native {@code hasPermission()} does NOT resolve groups.
  *
- * <p>Supports wildcard matching: {@code ecotalequests.*} and {@code *}.</p>
+ * <p>Supports wildcard matching: {@code ecotalequests.*} and {@code *}.
+ * Each user's granted nodes (the union of their groups) are compiled into a
+ * {@link PermissionTrie} on load, so matching is O(depth) per check.</p>
+ *
+ * <p>Decisions are cached per player and node for {@link #DECISION_TTL_MS};
+ * the cache is dropped on {@link #reload()} and per player on
+ * {@link #invalidate(UUID)}. LuckPerms methods are bound once into
+ * {@link MethodHandle}s. A LuckPerms user that is not loaded yet is loaded
+ * asynchronously — the caller is answered from {@code permissions.json}
+ * in the meantime and never blocks on {@code loadUser().join()}.</p>
+ *
+ * <p>With LuckPerms present, {@code UserDataRecalculateEvent} (group or node
+ * changes) drops the player's cached decisions and is forwarded to the
+ * {@link #setOnUserDataChanged listener} so derived state can be recomputed.</p>
  */
 public final class PermissionHelper {
 
     private static final PluginLogger LOGGER = PluginLogger.forEnclosingClass();
     private static final Gson GSON = new Gson();
 
+    /** How long a cached decision stays valid; bounds staleness of external permission edits. */
+    static final long DECISION_TTL_MS = 15_000;
+
     private static volatile PermissionHelper instance;
 
-    private final Map<String, List<String>> userGroups = new ConcurrentHashMap<>();
-    private final Map<String, Set<String>> groupPermissions = new ConcurrentHashMap<>();
+    /** Compiled permissions.json state, swapped as a whole on load. */
+    private volatile CompiledPermissions compiled = CompiledPermissions.EMPTY;
+    private final Map<UUID, Map<String, Decision>> decisions = new ConcurrentHashMap<>();
 
     private Path permissionsFile;
 
@@ -57,101 +79,218 @@ public final class PermissionHelper {
         }
     }
 
-    public void reload() {
-        if (permissionsFile != null && Files.exists(permissionsFile)) {
-            load();
-        }
+    /**
+     * Re-reads permissions.json. A file that fails to parse is rejected and
+     * the previously compiled permissions stay in effect.
+     *
+     * @return true if the new file was applied
+     */
+    public boolean reload() {
+        boolean applied = permissionsFile != null && Files.exists(permissionsFile) && load();
+        invalidateAll();
+        return applied;
     }
 
-    // ── LuckPerms API (reflection) ─────────────────────────
+    /** The resolved permissions.json, or null if none was found. */
+    @Nullable
+    public Path getPermissionsFile() {
+        return permissionsFile;
+    }
 
-    private Object luckPermsUserManager;
+    /** Drops cached decisions of one player (e.g. on disconnect or rank change). */
+    public void invalidate(@Nonnull UUID uuid) {
+        decisions.remove(uuid);
+    }
+
+    /** Drops all cached decisions. */
+    public void invalidateAll() {
+        decisions.clear();
+    }
+
+    /**
+     * Sets the callback run when LuckPerms recalculates a user's data.
+     * Invoked on a LuckPerms thread, after the player's decisions were dropped.
+     * Setting a listener binds the LuckPerms API right away, so call it once
+     * all plugins are loaded.
+     */
+    public void setOnUserDataChanged(@Nullable Consumer<UUID> listener) {
+        this.onUserDataChanged = listener;
+        if (listener != null) initLuckPerms();
+    }
+
+    // ── LuckPerms API (method handles) ─────────────────────
+
+    private volatile boolean luckPermsChecked = false;
     private boolean luckPermsAvailable = false;
-    private boolean luckPermsChecked = false;
+    private Object luckPermsUserManager;
+    /** {@code UserManager.getUser(UUID)}: (Object, UUID)Object. */
+    private MethodHandle lpGetUser;
+    /** {@code UserManager.loadUser(UUID)}: (Object, UUID)CompletableFuture. */
+    private MethodHandle lpLoadUser;
+    /** {@code User.getCachedData().getPermissionData().checkPermission(String).asBoolean()}: (Object, String)boolean. */
+    private MethodHandle lpCheck;
+    private final Set<UUID> pendingLoads = ConcurrentHashMap.newKeySet();
+    private volatile Consumer<UUID> onUserDataChanged;
 
     private void initLuckPerms() {
         if (luckPermsChecked) return;
-        luckPermsChecked = true;
+        synchronized (this) {
+            if (luckPermsChecked) return;
+            try {
+                Class<?> providerClass = Class.forName("net.luckperms.api.LuckPermsProvider");
+                Object api = providerClass.getMethod("get").invoke(null);
+                Class<?> apiClass = Class.forName("net.luckperms.api.LuckPerms");
+                Class<?> userManagerClass = Class.forName("net.luckperms.api.model.user.UserManager");
+                Class<?> userClass = Class.forName("net.luckperms.api.model.user.User");
+                Class<?> cachedDataClass = Class.forName("net.luckperms.api.cacheddata.CachedDataManager");
+                Class<?> permDataClass = Class.forName("net.luckperms.api.cacheddata.CachedPermissionData");
+                Class<?> tristateClass = Class.forName("net.luckperms.api.util.Tristate");
+
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                luckPermsUserManager = lookup.findVirtual(apiClass, "getUserManager",
+                        MethodType.methodType(userManagerClass)).invoke(api);
+                lpGetUser = lookup.findVirtual(userManagerClass, "getUser",
+                                MethodType.methodType(userClass, UUID.class))
+                        .asType(MethodType.methodType(Object.class, Object.class, UUID.class));
+                lpLoadUser = lookup.findVirtual(userManagerClass, "loadUser",
+                                MethodType.methodType(CompletableFuture.class, UUID.class))
+                        .asType(MethodType.methodType(CompletableFuture.class, Object.class, UUID.class));
+
+                // user → getCachedData → getPermissionData → checkPermission(node) → asBoolean
+                MethodHandle getCachedData = lookup.findVirtual(userClass, "getCachedData",
+                        MethodType.methodType(cachedDataClass));
+                MethodHandle getPermissionData = lookup.findVirtual(cachedDataClass, "getPermissionData",
+                        MethodType.methodType(permDataClass));
+                MethodHandle checkPermission = lookup.findVirtual(permDataClass, "checkPermission",
+                        MethodType.methodType(tristateClass, String.class));
+                MethodHandle asBoolean = lookup.findVirtual(tristateClass, "asBoolean",
+                        MethodType.methodType(boolean.class));
+                MethodHandle permData = MethodHandles.filterReturnValue(getCachedData, getPermissionData);
+                MethodHandle tristate = MethodHandles.filterArguments(checkPermission, 0, permData);
+                lpCheck = MethodHandles.filterReturnValue(tristate, asBoolean)
+                        .asType(MethodType.methodType(boolean.class, Object.class, String.class));
+
+                luckPermsAvailable = true;
+                LOGGER.info("LuckPerms API detected — using it for permission resolution");
+                subscribeUserRecalculation(api, apiClass, userClass);
+            } catch (ClassNotFoundException e) {
+                LOGGER.info("LuckPerms not found — using permissions.json only");
+            } catch (Throwable e) {
+                LOGGER.warn("LuckPerms API init failed: {} — using permissions.json", e.getMessage());
+            } finally {
+                luckPermsChecked = true;
+            }
+        }
+    }
+
+    /**
+     * Subscribes to {@code UserDataRecalculateEvent} through
+     * {@code LuckPerms.getEventBus().subscribe(Class, Consumer)}.
+     */
+    private void subscribeUserRecalculation(Object api, Class<?> apiClass, Class<?> userClass) {
         try {
-            Class<?> providerClass = Class.forName("net.luckperms.api.LuckPermsProvider");
-            Object api = providerClass.getMethod("get").invoke(null);
-            luckPermsUserManager = api.getClass().getMethod("getUserManager").invoke(api);
-            luckPermsAvailable = true;
-            LOGGER.info("LuckPerms API detected — using it for permission resolution");
-        } catch (ClassNotFoundException e) {
-            LOGGER.info("LuckPerms not found — using permissions.json only");
-        } catch (Exception e) {
-            LOGGER.warn("LuckPerms API init failed: {} — using permissions.json", e.getMessage());
+            Class<?> eventBusClass = Class.forName("net.luckperms.api.event.EventBus");
+            Class<?> eventClass = Class.forName("net.luckperms.api.event.user.UserDataRecalculateEvent");
+
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Object eventBus = lookup.findVirtual(apiClass, "getEventBus",
+                    MethodType.methodType(eventBusClass)).invoke(api);
+            // event → getUser → getUniqueId
+            MethodHandle eventUser = lookup.findVirtual(eventClass, "getUser",
+                    MethodType.methodType(userClass));
+            MethodHandle userId = lookup.findVirtual(userClass, "getUniqueId",
+                    MethodType.methodType(UUID.class));
+            MethodHandle eventUuid = MethodHandles.filterReturnValue(eventUser, userId)
+                    .asType(MethodType.methodType(UUID.class, Object.class));
+
+            Consumer<Object> handler = event -> {
+                try {
+                    UUID uuid = (UUID) eventUuid.invokeExact(event);
+                    if (uuid == null) return;
+                    invalidate(uuid);
+                    Consumer<UUID> listener = onUserDataChanged;
+                    if (listener != null) listener.accept(uuid);
+                } catch (Throwable e) {
+                    LOGGER.debug("LuckPerms recalculate handling failed: {}", e.getMessage());
+                }
+            };
+            eventBusClass.getMethod("subscribe", Class.class, Consumer.class)
+                    .invoke(eventBus, eventClass, handler);
+            LOGGER.info("Subscribed to LuckPerms user data changes");
+        } catch (Throwable e) {
+            LOGGER.warn("LuckPerms event subscription failed: {} — permission edits apply after {} s",
+                    e.getMessage(), DECISION_TTL_MS / 1000);
         }
     }
 
+    /**
+     * @return the LuckPerms decision, or null if LuckPerms is unavailable or
+     *         the user is still being loaded
+     */
     @Nullable
     private Boolean checkLuckPerms(@Nonnull UUID uuid, @Nonnull String permission) {
         initLuckPerms();
-        if (!luckPermsAvailable || luckPermsUserManager == null) return null;
+        if (!luckPermsAvailable) return null;
         try {
-            Object user = luckPermsUserManager.getClass()
-                    .getMethod("getUser", UUID.class).invoke(luckPermsUserManager, uuid);
+            Object user = (Object) lpGetUser.invokeExact(luckPermsUserManager, uuid);
             if (user == null) {
-                Object future = luckPermsUserManager.getClass()
-                        .getMethod("loadUser", UUID.class).invoke(luckPermsUserManager, uuid);
-                user = future.getClass().getMethod("join").invoke(future);
+                requestUserLoad(uuid);
+                return null;
             }
-            if (user == null) return null;
-            Object cachedData = user.getClass().getMethod("getCachedData").invoke(user);
-            Object permData = cachedData.getClass().getMethod("getPermissionData").invoke(cachedData);
-            Object triState = permData.getClass().getMethod("checkPermission", String.class)
-                    .invoke(permData, permission);
-            return (Boolean) triState.getClass().getMethod("asBoolean").invoke(triState);
-        } catch (Exception e) {
+            return (boolean) lpCheck.invokeExact(user, permission);
+        } catch (Throwable e) {
             LOGGER.debug("LuckPerms check failed for {}: {}", uuid, e.getMessage());
             return null;
         }
     }
 
-    public boolean hasPermission(@Nonnull UUID uuid, @Nonnull String permission) {
-        // 1. Try LuckPerms API first
-        Boolean lpResult = checkLuckPerms(uuid, permission);
-        if (lpResult != null) return lpResult;
-
-        // 2. Fallback: permissions.json
-        String uuidStr = uuid.toString();
-        List<String> groups = userGroups.get(uuidStr);
-        if (groups == null || groups.isEmpty()) {
-            Set<String> defaultPerms = groupPermissions.get("Default");
-            if (defaultPerms != null) {
-                return matchesAny(defaultPerms, permission);
-            }
-            return false;
+    /**
+     * Starts loading a LuckPerms user in the background; once loaded, the
+     * player's provisional decisions are dropped so the next check asks LuckPerms.
+     */
+    private void requestUserLoad(@Nonnull UUID uuid) {
+        if (!pendingLoads.add(uuid)) return;
+        try {
+            CompletableFuture<?> future = (CompletableFuture<?>) lpLoadUser.invokeExact(luckPermsUserManager, uuid);
+            future.whenComplete((user, error) -> {
+                pendingLoads.remove(uuid);
+                invalidate(uuid);
+                if (error != null) {
+                    LOGGER.debug("LuckPerms loadUser failed for {}: {}", uuid, error.getMessage());
+                }
+            });
+        } catch (Throwable e) {
+            pendingLoads.remove(uuid);
+            LOGGER.debug("LuckPerms loadUser failed for {}: {}", uuid, e.getMessage());
         }
+    }
 
-        for (String group : groups) {
-            Set<String> perms = groupPermissions.get(group);
-            if (perms != null && matchesAny(perms, permission)) {
-                return true;
-            }
+    // ── Resolution ─────────────────────────────────────────
+
+    public boolean hasPermission(@Nonnull UUID uuid, @Nonnull String permission) {
+        long now = System.currentTimeMillis();
+        Map<String, Decision> playerDecisions = decisions.get(uuid);
+        if (playerDecisions != null) {
+            Decision cached = playerDecisions.get(permission);
+            if (cached != null && cached.expiresAt() > now) return cached.granted();
         }
-        return false;
-    }
 
-    private boolean matchesAny(@Nonnull Set<String> grantedPerms, @Nonnull String requested) {
-        if (grantedPerms.contains(requested)) return true;
-        if (grantedPerms.contains("*")) return true;
-        for (String granted : grantedPerms) {
-            if (granted.endsWith(".*")) {
-                String prefix = granted.substring(0, granted.length() - 2);
-                if (requested.startsWith(prefix + ".") || requested.equals(prefix)) {
-                    return true;
-                }
-            }
+        // 1. Try LuckPerms API first
+        Boolean lpResult = checkLuckPerms(uuid, permission);
+        boolean granted = lpResult != null ? lpResult : compiled.forUser(uuid).matches(permission);
+
+        // A provisional answer while the LuckPerms user loads is not cached
+        if (lpResult != null || !pendingLoads.contains(uuid)) {
+            decisions.computeIfAbsent(uuid, k -> new ConcurrentHashMap<>())
+                    .put(permission, new Decision(granted, now + DECISION_TTL_MS));
         }
-        return false;
+        return granted;
     }
 
     @SuppressWarnings("unchecked")
-    private void load() {
-        userGroups.clear();
-        groupPermissions.clear();
+    private boolean load() {
+        Map<String, List<String>> userGroups = new HashMap<>();
+        Map<String, Set<String>> groupPermissions = new HashMap<>();
 
         try (Reader reader = new InputStreamReader(
                 Files.newInputStream(permissionsFile), StandardCharsets.UTF_8)) {
@@ -188,14 +327,17 @@ public final class PermissionHelper {
                 }
             }
 
+            compiled = CompiledPermissions.compile(userGroups, groupPermissions);
             LOGGER.info("permissions.json loaded: {} users, {} groups",
                     userGroups.size(), groupPermissions.size());
+            return true;
 
         } catch (IOException e) {
             LOGGER.error("Failed to load permissions.json: {}", e.getMessage());
         } catch (Exception e) {
             LOGGER.error("Error parsing permissions.json: {}", e.getMessage());
         }
+        return false;
     }
 
     @Nullable
@@ -233,4 +375,48 @@ public final class PermissionHelper {
 
         return null;
     }
+
+    // ── Internal types ─────────────────────────────────────
+
+    private record Decision(boolean granted, long expiresAt) {}
+
+    /**
+     * permissions.json compiled into one trie per user (the union of their
+     * groups) plus the trie of the {@code Default} group for everyone else.
+     */
+    private record CompiledPermissions(Map<UUID, PermissionTrie> users, PermissionTrie defaults) {
+
+        static final CompiledPermissions EMPTY = new CompiledPermissions(Map.of(), PermissionTrie.EMPTY);
+
+        static CompiledPermissions compile(Map<String, List<String>> userGroups,
+                                           Map<String, Set<String>> groupPermissions) {
+            Set<String> defaultPerms = groupPermissions.get("Default");
+            PermissionTrie defaults = defaultPerms != null
+                    ? PermissionTrie.compile(defaultPerms)
+                    : PermissionTrie.EMPTY;
+
+            Map<UUID, PermissionTrie> users = new HashMap<>();
+            for (Map.Entry<String, List<String>> entry : userGroups.entrySet()) {
+                if (entry.getValue().isEmpty()) continue; // no groups → Default
+                UUID uuid;
+                try {
+                    uuid = UUID.fromString(entry.getKey());
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                List<String> granted = new ArrayList<>();
+                for (String group : entry.getValue()) {
+                    Set<String> perms = groupPermissions.get(group);
+                    if (perms != null) granted.addAll(perms);
+                }
+                users.put(uuid, PermissionTrie.compile(granted));
+            }
+            return new CompiledPermissions(Map.copyOf(users), defaults);
+        }
+
+        PermissionTrie forUser(UUID uuid) {
+            PermissionTrie trie = users.get(uuid);
+            return trie != null ? trie : defaults;
+        }
+    }
 }
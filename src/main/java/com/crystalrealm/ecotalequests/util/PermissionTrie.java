@@ -0,0 +1,90 @@
+package com.crystalrealm.ecotalequests.util;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Granted permission nodes compiled into a prefix tree over dot-separated
+ * segments.
+ *
+ * <p>A wildcard node {@code a.b.*} marks {@code a.b} as covering itself and
+ * everything below it; {@code *} covers every node. A lookup walks at most
+ * one tree level per segment of the requested node, so matching costs
+ * O(depth) regardless of how many nodes were granted.</p>
+ *
+ * <p>Instances are immutable once {@link #compile compiled} and safe to
+ * share between threads.</p>
+ */
+final class PermissionTrie {
+
+    static final PermissionTrie EMPTY = compile(java.util.List.of());
+
+    private final Node root;
+
+    private PermissionTrie(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Compiles granted nodes. Comments ({@code #...}) are skipped.
+     */
+    @Nonnull
+    static PermissionTrie compile(@Nonnull Collection<String> granted) {
+        Node root = new Node();
+        for (String raw : granted) {
+            if (raw == null) continue;
+            String node = raw.trim();
+            if (node.startsWith("#")) continue;
+
+            if (node.equals("*")) {
+                root.wildcard = true;
+                continue;
+            }
+            boolean wildcard = node.endsWith(".*");
+            if (wildcard) node = node.substring(0, node.length() - 2);
+
+            Node current = root;
+            int start = 0;
+            while (true) {
+                int dot = node.indexOf('.', start);
+                String segment = dot < 0 ? node.substring(start) : node.substring(start, dot);
+                current = current.children.computeIfAbsent(segment, k -> new Node());
+                if (dot < 0) break;
+                start = dot + 1;
+            }
+            if (wildcard) {
+                current.wildcard = true;
+            } else {
+                current.granted = true;
+            }
+        }
+        return new PermissionTrie(root);
+    }
+
+    /**
+     * Whether {@code permission} is granted exactly or through a wildcard.
+     */
+    boolean matches(@Nonnull String permission) {
+        Node current = root;
+        int start = 0;
+        while (true) {
+            if (current.wildcard) return true;
+            int dot = permission.indexOf('.', start);
+            String segment = dot < 0 ? permission.substring(start) : permission.substring(start, dot);
+            current = current.children.get(segment);
+            if (current == null) return false;
+            if (dot < 0) return current.granted || current.wildcard;
+            start = dot + 1;
+        }
+    }
+
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<>(4);
+        /** The node itself was granted. */
+        boolean granted;
+        /** The node and everything below it were granted ({@code node.*}). */
+        boolean wildcard;
+    }
+}
@@ -0,0 +1,107 @@
+package com.crystalrealm.ecotalequests.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Сессия онлайн-игрока: слабая ссылка на PlayerRef и состояние,
+ * живущее ровно до выхода игрока (язык, кеш уровня, VIP-тир и т.п.).
+ *
+ * <p>Создаётся и закрывается {@link PlayerSessions}. PlayerRef хранится
+ * через {@link WeakReference}, поэтому сессия не удерживает объект
+ * отключившегося игрока, даже если событие выхода было пропущено.</p>
+ */
+public final class PlayerSession {
+
+    /**
+     * Типизированный ключ состояния сессии. Ключи сравниваются по
+     * идентичности — объявляйте их как {@code static final} константы.
+     */
+    public static final class Key<T> {
+        private final String name;
+
+        private Key(String name) {
+            this.name = name;
+        }
+
+        @Nonnull
+        public static <T> Key<T> of(@Nonnull String name) {
+            return new Key<>(name);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private final UUID playerUuid;
+    private final long openedAt;
+    private volatile WeakReference<Object> playerRef;
+    private final Map<Key<?>, Object> attributes = new ConcurrentHashMap<>();
+
+    PlayerSession(@Nonnull UUID playerUuid, @Nonnull Object playerRef) {
+        this.playerUuid = playerUuid;
+        this.openedAt = System.currentTimeMillis();
+        this.playerRef = new WeakReference<>(playerRef);
+    }
+
+    @Nonnull
+    public UUID getPlayerUuid() { return playerUuid; }
+
+    /** Время открытия сессии (epoch millis). */
+    public long getOpenedAt() { return openedAt; }
+
+    /**
+     * PlayerRef игрока, или null если объект уже собран GC.
+     */
+    @Nullable
+    public Object getPlayerRef() {
+        return playerRef.get();
+    }
+
+    /** Обновляет PlayerRef, если игрок получил новый объект (смена мира и т.п.). */
+    void updatePlayerRef(@Nonnull Object ref) {
+        if (playerRef.get() != ref) {
+            playerRef = new WeakReference<>(ref);
+        }
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    //  STATE
+    // ═════════════════════════════════════════════════════════════
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(@Nonnull Key<T> key) {
+        return (T) attributes.get(key);
+    }
+
+    public <T> void set(@Nonnull Key<T> key, @Nullable T value) {
+        if (value == null) {
+            attributes.remove(key);
+        } else {
+            attributes.put(key, value);
+        }
+    }
+
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public <T> T computeIfAbsent(@Nonnull Key<T> key, @Nonnull Function<UUID, T> loader) {
+        return (T) attributes.computeIfAbsent(key, k -> loader.apply(playerUuid));
+    }
+
+    public void remove(@Nonnull Key<?> key) {
+        attributes.remove(key);
+    }
+
+    @Override
+    public String toString() {
+        return "PlayerSession{" + playerUuid + ", attributes=" + attributes.keySet() + "}";
+    }
+}
@@ -0,0 +1,185 @@
+package com.crystalrealm.ecotalequests.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Реестр сессий онлайн-игроков.
+ *
+ * <p>Сессия открывается при подключении ({@link #open}) или при первом
+ * появлении игрока в игровом событии ({@link #observe} — например, если
+ * плагин загружен при уже подключённых игроках), и закрывается при
+ * отключении ({@link #close}). Закрытие оставляет короткую «надгробную»
+ * отметку: запоздавшее событие вышедшего игрока сессию не воскрешает.
+ * PlayerRef хранится слабо; невалидная ссылка (сущность ещё не создана,
+ * смена мира) сессию не закрывает — закрывает только собранная GC.</p>
+ *
+ * <p>{@link #onlinePlayers()} возвращает неизменяемый снимок UUID,
+ * который пересобирается только при входе/выходе игроков — опросчики
+ * и рассылки могут вызывать его на каждом тике.</p>
+ */
+public final class PlayerSessions {
+
+    private static final PluginLogger LOGGER = PluginLogger.forEnclosingClass();
+
+    private static final Map<UUID, PlayerSession> SESSIONS = new ConcurrentHashMap<>();
+    /** Номер изменения состава игроков; снимок с другим номером устарел. */
+    private static final AtomicLong VERSION = new AtomicLong();
+    private static volatile Snapshot snapshot = new Snapshot(0, Set.of());
+
+    /** Сколько после выхода игровые события не открывают сессию заново (мс). */
+    private static final long DEPARTURE_GRACE_MS = 30_000L;
+    /** Недавно вышедшие игроки: UUID → время выхода. */
+    private static final Map<UUID, Long> DEPARTED = new ConcurrentHashMap<>();
+
+    /** {@code boolean isValid()} на каждый класс PlayerRef: (Object)boolean, если метод есть. */
+    private static final ClassValue<Optional<MethodHandle>> IS_VALID = new ClassValue<>() {
+        @Override
+        protected Optional<MethodHandle> computeValue(Class<?> type) {
+            try {
+                MethodHandle handle = MethodHandles.publicLookup()
+                        .findVirtual(type, "isValid", MethodType.methodType(boolean.class));
+                return Optional.of(handle.asType(MethodType.methodType(boolean.class, Object.class)));
+            } catch (ReflectiveOperationException e) {
+                return Optional.empty();
+            }
+        }
+    };
+
+    private PlayerSessions() {}
+
+    // ═════════════════════════════════════════════════════════════
+    //  LIFECYCLE
+    // ═════════════════════════════════════════════════════════════
+
+    /**
+     * Открывает сессию при подключении. Существующая сессия (повторный
+     * вход без выхода) заменяется новой — состояние прошлой не переносится.
+     */
+    @Nonnull
+    public static PlayerSession open(@Nonnull UUID playerUuid, @Nonnull Object playerRef) {
+        PlayerSession session = new PlayerSession(playerUuid, playerRef);
+        DEPARTED.remove(playerUuid);
+        SESSIONS.put(playerUuid, session);
+        VERSION.incrementAndGet();
+        return session;
+    }
+
+    /**
+     * Отмечает игрока, замеченного в игровом событии: обновляет PlayerRef
+     * открытой сессии, иначе открывает новую — если игрок не вышел только
+     * что (событие, обработанное после {@link #close}, игнорируется).
+     */
+    public static void observe(@Nullable UUID playerUuid, @Nullable Object playerRef) {
+        if (playerUuid == null || playerRef == null) return;
+        PlayerSession session = SESSIONS.get(playerUuid);
+        if (session != null) {
+            session.updatePlayerRef(playerRef);
+            return;
+        }
+        Long departedAt = DEPARTED.get(playerUuid);
+        if (departedAt != null) {
+            if (System.currentTimeMillis() - departedAt < DEPARTURE_GRACE_MS) return;
+            DEPARTED.remove(playerUuid, departedAt);
+        }
+        if (SESSIONS.putIfAbsent(playerUuid, new PlayerSession(playerUuid, playerRef)) == null) {
+            VERSION.incrementAndGet();
+        }
+    }
+
+    /**
+     * Закрывает сессию при отключении.
+     *
+     * @return закрытая сессия или null, если её не было
+     */
+    @Nullable
+    public static PlayerSession close(@Nonnull UUID playerUuid) {
+        long now = System.currentTimeMillis();
+        DEPARTED.values().removeIf(departedAt -> now - departedAt >= DEPARTURE_GRACE_MS);
+        DEPARTED.put(playerUuid, now);
+        PlayerSession removed = SESSIONS.remove(playerUuid);
+        if (removed != null) VERSION.incrementAndGet();
+        return removed;
+    }
+
+    /** Закрывает все сессии (выключение плагина). */
+    public static void clear() {
+        SESSIONS.clear();
+        DEPARTED.clear();
+        VERSION.incrementAndGet();
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    //  QUERIES
+    // ═════════════════════════════════════════════════════════════
+
+    /**
+     * Сессия онлайн-игрока, или null.
+     */
+    @Nullable
+    public static PlayerSession get(@Nonnull UUID playerUuid) {
+        return SESSIONS.get(playerUuid);
+    }
+
+    /**
+     * Живой PlayerRef игрока, или null. Ссылка с {@code isValid() == false}
+     * (сущность ещё не создана, игрок меняет мир) даёт null, но сессию
+     * не трогает; собранная GC ссылка закрывает сессию.
+     */
+    @Nullable
+    public static Object playerRef(@Nonnull UUID playerUuid) {
+        PlayerSession session = SESSIONS.get(playerUuid);
+        if (session == null) return null;
+        Object ref = session.getPlayerRef();
+        if (ref != null) return isValid(ref) ? ref : null;
+
+        if (SESSIONS.remove(playerUuid, session)) {
+            VERSION.incrementAndGet();
+            LOGGER.debug("Evicted stale session for {}", playerUuid);
+        }
+        return null;
+    }
+
+    public static boolean isOnline(@Nonnull UUID playerUuid) {
+        return SESSIONS.containsKey(playerUuid);
+    }
+
+    /**
+     * Неизменяемый снимок UUID онлайн-игроков.
+     */
+    @Nonnull
+    public static Set<UUID> onlinePlayers() {
+        long version = VERSION.get();
+        Snapshot current = snapshot;
+        if (current.version() != version) {
+            current = new Snapshot(version, Set.copyOf(SESSIONS.keySet()));
+            snapshot = current;
+        }
+        return current.players();
+    }
+
+    public static int size() {
+        return SESSIONS.size();
+    }
+
+    private static boolean isValid(Object ref) {
+        Optional<MethodHandle> check = IS_VALID.get(ref.getClass());
+        if (check.isEmpty()) return true;
+        try {
+            return (boolean) check.get().invokeExact(ref);
+        } catch (Throwable e) {
+            return true;
+        }
+    }
+
+    private record Snapshot(long version, Set<UUID> players) {}
+}
@@ -1,11 +1,17 @@
 package com.crystalrealm.ecotalequests.util;
 
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Lightweight SLF4J-style logger wrapper over java.util.logging.
  * Supports {} placeholders.
+ *
+ * <p>For hot paths (per mob death, per block break) use the level guards
+ * ({@link #isDebugEnabled()}), structured {@link #event} lines, and a
+ * per-call-site {@link Sampler} that lets at most one line through per
+ * interval and reports how many were suppressed in between.</p>
  */
 public final class PluginLogger {
 
@@ -20,6 +26,14 @@ public final class PluginLogger {
         return new PluginLogger(caller.getClassName());
     }
 
+    public boolean isDebugEnabled() {
+        return logger.isLoggable(Level.FINE);
+    }
+
+    public boolean isInfoEnabled() {
+        return logger.isLoggable(Level.INFO);
+    }
+
     public void info(String msg, Object... args) {
         if (logger.isLoggable(Level.INFO)) {
             logger.info(format(msg, args));
@@ -54,6 +68,81 @@ public final class PluginLogger {
         }
     }
 
+    /**
+     * Structured DEBUG event: {@code "event key=value key=value"}.
+     * Arguments are alternating keys and values.
+     */
+    public void event(String event, Object... keyValues) {
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine(formatEvent(event, keyValues, 0));
+        }
+    }
+
+    /**
+     * Creates a rate limiter for one call site. Keep it in a
+     * {@code static final} field next to the logger.
+     *
+     * @param intervalMs minimum interval between emitted lines
+     */
+    public Sampler sampler(long intervalMs) {
+        return new Sampler(intervalMs);
+    }
+
+    /**
+     * Per-call-site sampler: emits at INFO at most once per interval,
+     * counting suppressed calls and appending the count to the next emitted line.
+     */
+    public final class Sampler {
+
+        private final long intervalNanos;
+        private final AtomicLong nextAllowed = new AtomicLong(Long.MIN_VALUE);
+        private final AtomicLong suppressed = new AtomicLong();
+
+        private Sampler(long intervalMs) {
+            this.intervalNanos = intervalMs * 1_000_000L;
+        }
+
+        /**
+         * Claims the next emission slot. Callers may guard expensive
+         * argument building with it and then call {@link #emit}.
+         *
+         * @return true if this call may log
+         */
+        public boolean tryAcquire() {
+            if (!logger.isLoggable(Level.INFO)) return false;
+            long now = System.nanoTime();
+            long next = nextAllowed.get();
+            if ((next == Long.MIN_VALUE || now - next >= 0)
+                    && nextAllowed.compareAndSet(next, now + intervalNanos)) {
+                return true;
+            }
+            suppressed.incrementAndGet();
+            return false;
+        }
+
+        /** Structured INFO event, sampled. */
+        public void event(String event, Object... keyValues) {
+            if (tryAcquire()) emit(event, keyValues);
+        }
+
+        /** Emits unconditionally — call only after a successful {@link #tryAcquire()}. */
+        public void emit(String event, Object... keyValues) {
+            logger.info(formatEvent(event, keyValues, suppressed.getAndSet(0)));
+        }
+    }
+
+    private static String formatEvent(String event, Object[] keyValues, long suppressed) {
+        StringBuilder sb = new StringBuilder(event.length() + 16 * (keyValues.length / 2 + 1));
+        sb.append(event);
+        for (int i = 0; i + 1 < keyValues.length; i += 2) {
+            sb.append(' ').append(keyValues[i]).append('=').append(keyValues[i + 1]);
+        }
+        if (suppressed > 0) {
+            sb.append(" suppressed=").append(suppressed);
+        }
+        return sb.toString();
+    }
+
     private String format(String pattern, Object... args) {
         if (args == null || args.length == 0) return pattern;
         StringBuilder sb = new StringBuilder();
@@ -0,0 +1,10 @@
+package com.hypixel.hytale.server.core.event.events.player;
+
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+
+/**
+ * Stub — global event fired when a player disconnects from the server.
+ */
+public class PlayerDisconnectEvent {
+    public PlayerRef getPlayerRef() { return null; }
+}
@@ -0,0 +1,186 @@
+package com.crystalrealm.ecotalequests.service;
+
+import com.crystalrealm.ecotalequests.model.Quest;
+import com.crystalrealm.ecotalequests.model.QuestAccessType;
+import com.crystalrealm.ecotalequests.model.QuestAssignment;
+import com.crystalrealm.ecotalequests.model.QuestObjective;
+import com.crystalrealm.ecotalequests.model.QuestPeriod;
+import com.crystalrealm.ecotalequests.model.QuestReward;
+import com.crystalrealm.ecotalequests.model.QuestType;
+import com.crystalrealm.ecotalequests.storage.JsonQuestStorage;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Стресс-тест менеджера слотов.
+ *
+ * <p>Принятие и отмена независимых квестов не должны упираться в общую
+ * блокировку: пропускная способность на нескольких потоках не ниже, чем
+ * на одном. Конкурентный accept GLOBAL_UNIQUE квеста даёт ровно одного
+ * держателя, а резерв из очереди считается занятым слотом.</p>
+ */
+class QuestAvailabilityManagerStressTest {
+
+    private static final int CYCLES_PER_THREAD = 10_000;
+    private static final int ROUNDS = 3;
+
+    @Test
+    void independentQuestsScaleAcrossThreads() throws Exception {
+        int threads = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+        withManager(manager -> {
+            double single = 0;
+            double parallel = 0;
+            // Первые раунды прогревают JIT, засчитывается лучший результат
+            for (int round = 0; round < ROUNDS; round++) {
+                single = Math.max(single, throughput(manager, 1));
+                parallel = Math.max(parallel, throughput(manager, threads));
+            }
+            assertTrue(parallel >= single * 0.75,
+                    String.format("%d threads: %.0f ops/s, 1 thread: %.0f ops/s", threads, parallel, single));
+        });
+    }
+
+    @Test
+    void contendedUniqueQuestHasExactlyOneHolder() throws Exception {
+        withManager(manager -> {
+            Quest quest = quest(QuestAccessType.GLOBAL_UNIQUE, 1);
+            int players = 64;
+            ExecutorService pool = Executors.newFixedThreadPool(16);
+            CountDownLatch start = new CountDownLatch(1);
+            try {
+                List<Future<QuestAssignment>> results = new ArrayList<>();
+                for (int i = 0; i < players; i++) {
+                    UUID player = UUID.randomUUID();
+                    results.add(pool.submit(() -> {
+                        start.await();
+                        return manager.tryAssign(quest, player);
+                    }));
+                }
+                start.countDown();
+
+                int assigned = 0;
+                for (Future<QuestAssignment> result : results) {
+                    if (result.get(1, TimeUnit.MINUTES) != null) assigned++;
+                }
+                assertEquals(1, assigned);
+                assertEquals(1, manager.getOccupiedSlots(quest.getQuestId()));
+            } finally {
+                pool.shutdownNow();
+            }
+        });
+    }
+
+    @Test
+    void offeredClaimCountsAsOccupied() throws Exception {
+        withManager(manager -> {
+            Quest quest = quest(QuestAccessType.GLOBAL_UNIQUE, 1);
+            UUID holder = UUID.randomUUID();
+            UUID waiter = UUID.randomUUID();
+
+            assertNotNull(manager.tryAssign(quest, holder));
+            assertEquals(1, manager.joinWaitlist(quest, waiter));
+
+            // Слот переходит в резерв за ожидающим — он по-прежнему занят
+            manager.releaseAssignment(quest.getQuestId(), holder);
+            assertEquals(1, manager.getOccupiedSlots(quest.getQuestId()));
+            assertTrue(manager.isAvailable(quest, waiter));
+
+            // Отказ от резерва освобождает слот
+            assertTrue(manager.leaveWaitlist(quest.getQuestId(), waiter));
+            assertEquals(0, manager.getOccupiedSlots(quest.getQuestId()));
+        });
+    }
+
+    // ── helpers ─────────────────────────────────────────────────
+
+    /** Пропускная способность accept + release на независимых квестах (операций в секунду). */
+    private static double throughput(QuestAvailabilityManager manager, int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(cycleWorker(manager, start)));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            long ops = 0;
+            for (Future<Integer> result : results) {
+                ops += result.get(2, TimeUnit.MINUTES);
+            }
+            long elapsed = System.nanoTime() - begin;
+            return ops * 1e9 / elapsed;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Callable<Integer> cycleWorker(QuestAvailabilityManager manager, CountDownLatch start) {
+        return () -> {
+            // У каждого потока свой квест — потоки не делят SlotState
+            Quest quest = quest(QuestAccessType.LIMITED_SLOTS, 4);
+            UUID player = UUID.randomUUID();
+            start.await();
+            for (int i = 0; i < CYCLES_PER_THREAD; i++) {
+                if (manager.tryAssign(quest, player) == null) {
+                    throw new AssertionError("Slot of an uncontended quest was not assigned");
+                }
+                manager.releaseAssignment(quest.getQuestId(), player);
+            }
+            return CYCLES_PER_THREAD;
+        };
+    }
+
+    private static Quest quest(QuestAccessType accessType, int maxSlots) {
+        long now = System.currentTimeMillis();
+        return new Quest(UUID.randomUUID(), "stress", "stress", QuestPeriod.DAILY,
+                new QuestObjective(QuestType.values()[0], null, 1),
+                new QuestReward(1),
+                0, accessType, maxSlots, 0, null, 10, now, now + TimeUnit.DAYS.toMillis(1));
+    }
+
+    private interface ManagerTest {
+        void run(QuestAvailabilityManager manager) throws Exception;
+    }
+
+    private static void withManager(ManagerTest test) throws Exception {
+        Path dir = Files.createTempDirectory("ecotalequests-slots");
+        JsonQuestStorage storage = new JsonQuestStorage(dir);
+        try {
+            storage.initialize();
+            QuestAvailabilityManager manager = new QuestAvailabilityManager(storage);
+            manager.initialize();
+            test.run(manager);
+            manager.shutdown();
+        } finally {
+            storage.shutdown();
+            deleteRecursively(dir);
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
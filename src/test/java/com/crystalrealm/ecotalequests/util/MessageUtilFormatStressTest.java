@@ -0,0 +1,121 @@
+package com.crystalrealm.ecotalequests.util;
+
+import com.crystalrealm.ecotalequests.config.QuestsConfig;
+import org.junit.jupiter.api.Test;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Стресс-тест форматирования монет под конкуренцией.
+ *
+ * <p>Все потоки стартуют одновременно и форматируют одни и те же классы
+ * значений (целые, центы, «ничьи» на .5, соседние double, крупные суммы).
+ * Эталон — {@link DecimalFormat} собственного потока, как в исходной
+ * реализации до перехода на lock-free форматирование.</p>
+ */
+class MessageUtilFormatStressTest {
+
+    private static final int ITERATIONS_PER_THREAD = 200_000;
+
+    @Test
+    void concurrentFormattingMatchesDecimalFormat() throws Exception {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long seed = 0x5EED_0000L + t;
+                results.add(pool.submit(formatWorker(seed, start)));
+            }
+            start.countDown();
+
+            List<String> mismatches = new ArrayList<>();
+            for (Future<List<String>> result : results) {
+                mismatches.addAll(result.get(2, TimeUnit.MINUTES));
+            }
+            assertTrue(mismatches.isEmpty(),
+                    mismatches.size() + " mismatches, first: " + mismatches.subList(0, Math.min(5, mismatches.size())));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void formatCoinsIsExactWhileCurrencyFollowsRoundCurrency() {
+        QuestsConfig.GeneralSection general = new QuestsConfig.GeneralSection();
+        general.setRoundCurrency(true);
+        general.setCurrencySymbol("$");
+        MessageUtil.setCurrencySettings(() -> general);
+        try {
+            // Выплаченная награда показывается как есть
+            assertEquals("12.3", MessageUtil.formatCoins(12.3));
+            assertEquals("1,234.56", MessageUtil.formatCoins(1234.56));
+            // Отображение валюты округляет вверх
+            assertEquals("13$", MessageUtil.formatCurrency(12.3));
+
+            general.setRoundCurrency(false);
+            assertEquals("12.3$", MessageUtil.formatCurrency(12.3));
+        } finally {
+            MessageUtil.setCurrencySettings(null);
+        }
+    }
+
+    private static Callable<List<String>> formatWorker(long seed, CountDownLatch start) {
+        return () -> {
+            DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale.US);
+            DecimalFormat exact = new DecimalFormat("#,##0.##", symbols);
+            DecimalFormat rounded = new DecimalFormat("#,##0", symbols);
+            SplittableRandom random = new SplittableRandom(seed);
+            StringBuilder sb = new StringBuilder(32);
+            List<String> mismatches = new ArrayList<>();
+
+            start.await();
+            for (int i = 0; i < ITERATIONS_PER_THREAD; i++) {
+                double value = nextValue(random);
+
+                String expected = exact.format(value);
+                String actual = MessageUtil.formatCoins(value, false);
+                if (!expected.equals(actual)) mismatches.add(value + ": " + expected + " != " + actual);
+
+                String expectedRounded = rounded.format(Math.ceil(value));
+                String actualRounded = MessageUtil.formatCoins(value, true);
+                if (!expectedRounded.equals(actualRounded)) {
+                    mismatches.add(value + " (round): " + expectedRounded + " != " + actualRounded);
+                }
+
+                sb.setLength(0);
+                MessageUtil.appendCoins(sb.append('+'), value, false);
+                if (!sb.toString().equals("+" + expected)) {
+                    mismatches.add(value + " (append): +" + expected + " != " + sb);
+                }
+            }
+            return mismatches;
+        };
+    }
+
+    private static double nextValue(SplittableRandom random) {
+        return switch (random.nextInt(6)) {
+            case 0 -> random.nextInt(-1_000, 1_000_000);                       // целые
+            case 1 -> random.nextInt(0, 10_000_000) / 100.0;                   // ровные центы
+            case 2 -> (random.nextInt(0, 2_000_000) + 0.5) / 100.0;            // «ничья» на полцента
+            case 3 -> Math.nextUp(random.nextInt(0, 1_000_000) / 100.0);       // соседние double
+            case 4 -> random.nextDouble(-1e6, 1e9);                            // произвольные
+            default -> random.nextDouble(1e12, 5e13);                          // крупные, включая фолбэк
+        };
+    }
+}